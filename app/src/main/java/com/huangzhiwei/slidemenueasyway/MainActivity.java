@@ -2,48 +2,69 @@ package com.huangzhiwei.slidemenueasyway;
 
 import android.app.Activity;
 import android.content.Context;
-import android.os.AsyncTask;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewStub;
 import android.view.WindowManager;
 import android.widget.LinearLayout;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
+import com.huangzhiwei.slidecore.FlightRecorder;
+import com.huangzhiwei.slidecore.SlideDecisions;
+import com.huangzhiwei.slidemenu.DeferredInflater;
+import com.huangzhiwei.slidemenu.PointerVelocityTracker;
+import com.huangzhiwei.slidemenu.SlideAnimator;
+
 public class MainActivity extends Activity implements View.OnTouchListener {
 
-    private final String TAG = "MainActivity";
+    /**
+     * 滚动显示和隐藏menu时，手指滑动需要达到的速度，单位为每秒移动的dp值。
+     */
+    public static final int SNAP_VELOCITY_DP = 200;
 
     /**
-     * 滚动显示和隐藏menu时，手指滑动需要达到的速度。
+     * 按屏幕密度换算后的SNAP_VELOCITY_DP，单位为每秒移动的像素值，与速度追踪器的输出相同。
      */
-    public static final int SNAP_VELOCITY = 200;
+    private float snapVelocity;
 
     /**
-     * 左侧menu视图
+     * 左侧menu视图，inflate之前为null。
      */
     private View menu;
 
+    /**
+     * menu在布局文件中以ViewStub占位，第一帧之后主线程空闲时才inflate，手指按下时会提前完成。
+     */
+    private final DeferredInflater menuInflater = new DeferredInflater();
+
     /**
      * 右侧content视图
      */
     private View content;
 
     /**
-     * menu布局的参数，通过此参数来更改leftMargin的值。
+     * menu布局的参数，只在初始化时设置一次leftMargin，将menu移出屏幕。inflate时会原样交给menu。
      */
     private LinearLayout.LayoutParams menuParams;
 
     /**
-     * menu最多可以滑动到的左边缘。值由menu布局的宽度来定，marginLeft到达此值之后，不能再减少。
+     * menu和content当前向右平移的距离，范围是0到menu的宽度。
+     * 滑动时只修改translationX，不会触发重新测量和布局。
      */
-    private int leftEdge;
+    private int menuOffset;
 
     /**
-     * menu最多可以滑动到的右边缘。值恒为0，即marginLeft到达0之后，不能增加。
+     * 手指按下时menu的平移距离，拖动以此为起点。
      */
-    private int rightEdge = 0;
+    private int dragStartOffset;
+
+    /**
+     * menu最多可以滑动到的左边缘。值由menu布局的宽度来定，marginLeft到达此值之后，不能再减少。
+     */
+    private int leftEdge;
 
     /**
      * 屏幕宽度
@@ -76,9 +97,19 @@ public class MainActivity extends Activity implements View.OnTouchListener {
     private boolean isMenuVisible;
 
     /**
-     * 用于计算手指滑动的速度。
+     * 用于计算手指滑动的速度，整个生命周期内复用。
+     */
+    private PointerVelocityTracker mVelocityTracker = new PointerVelocityTracker();
+
+    /**
+     * 滚动显示和隐藏menu的动画，由屏幕刷新驱动，每一帧更新一次menu和content的位置。
      */
-    private VelocityTracker mVelocityTracker;
+    private SlideAnimator menuAnimator;
+
+    /**
+     * 记录手势阶段、偏移和帧时间，通过adb shell dumpsys activity查看。
+     */
+    private final FlightRecorder flightRecorder = new FlightRecorder();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -86,6 +117,22 @@ public class MainActivity extends Activity implements View.OnTouchListener {
         setContentView(R.layout.activity_main);
         initValues();
         content.setOnTouchListener(this);
+        menuAnimator = new SlideAnimator(new SlideAnimator.OnSlideListener() {
+            @Override
+            public void onSlideUpdate(int offset) {
+                // fling的时间被缩短时会略微越过终点，不能超出menu的范围
+                offset = SlideDecisions.clamp(offset, 0, -leftEdge);
+                setMenuOffset(offset);
+                flightRecorder.record(FlightRecorder.EVENT_SETTLE_FRAME, menuAnimator.getLastFrameTimeNanos(), offset);
+            }
+
+            @Override
+            public void onSlideEnd(int offset) {
+                setMenuOffset(offset);
+                flightRecorder.record(FlightRecorder.EVENT_SETTLED, menuAnimator.getLastFrameTimeNanos(), offset);
+                isMenuVisible = offset == -leftEdge;
+            }
+        });
     }
 
     /**
@@ -95,9 +142,19 @@ public class MainActivity extends Activity implements View.OnTouchListener {
     {
         WindowManager windowManager = (WindowManager)getSystemService(Context.WINDOW_SERVICE);
         screenWidth = windowManager.getDefaultDisplay().getWidth();
-        menu = findViewById(R.id.menu);
+        snapVelocity = SNAP_VELOCITY_DP * getResources().getDisplayMetrics().density;
+        ViewStub menuStub = (ViewStub) findViewById(R.id.menu_stub);
+        menuStub.setOnInflateListener(new ViewStub.OnInflateListener() {
+            @Override
+            public void onInflate(ViewStub stub, View inflated) {
+                menu = inflated;
+                menu.setTranslationX(menuOffset);
+            }
+        });
+        menuInflater.add(menuStub);
+        menuInflater.schedule();
         content = findViewById(R.id.content);
-        menuParams = (LinearLayout.LayoutParams) menu.getLayoutParams();
+        menuParams = (LinearLayout.LayoutParams) menuStub.getLayoutParams();
         // 将menu的宽度设置为屏幕宽度减去menuPadding
         menuParams.width = screenWidth - menuPadding;
         // 左边缘的值赋值为menu宽度的负数
@@ -112,36 +169,41 @@ public class MainActivity extends Activity implements View.OnTouchListener {
 
     @Override
     public boolean onTouch(View v, MotionEvent event) {
-        createVelocityTracker(event);
-        switch (event.getAction())
+        mVelocityTracker.addMovement(event);
+        switch (event.getActionMasked())
         {
             case MotionEvent.ACTION_DOWN:
                 // 手指按下时，记录按下时的横坐标
                 xDown = event.getRawX();
+                flightRecorder.record(FlightRecorder.EVENT_TOUCH_DOWN, eventTimeNanos(event), (int) xDown);
+                // 在手指移动之前准备好menu
+                menuInflater.inflateNow();
+                if(menuAnimator.isRunning())
+                {
+                    // 动画进行中按下时接住menu，从当前位置继续拖动，并按离哪一侧更近来判断松手后的意图
+                    menuAnimator.cancel();
+                    isMenuVisible = menuOffset > -leftEdge / 2;
+                }
+                dragStartOffset = menuOffset;
                 break;
             case MotionEvent.ACTION_MOVE:
-                // 手指移动时，对比按下时的横坐标，计算出移动的距离，来调整menu的leftMargin值，从而显示和隐藏menu
+                // 手指移动时，对比按下时的横坐标，计算出移动的距离，来调整menu和content的平移距离，从而显示和隐藏menu
                 xMove = event.getRawX();
                 int distance = (int) (xMove - xDown);
-                if(isMenuVisible)//menu栏显示
-                {
-                    menuParams.leftMargin = distance;
-                }
-                else if(!isMenuVisible)//menu栏不显示
-                {
-                    menuParams.leftMargin = leftEdge + distance;
-                }
+                int offset = dragStartOffset + distance;
 
-                if(menuParams.leftMargin < leftEdge)
-                    menuParams.leftMargin = leftEdge;
-                else if(menuParams.leftMargin > rightEdge)
-                    menuParams.leftMargin = rightEdge;
+                if(offset < 0)
+                    offset = 0;
+                else if(offset > -leftEdge)
+                    offset = -leftEdge;
 
-                menu.setLayoutParams(menuParams);
+                setMenuOffset(offset);
+                flightRecorder.record(FlightRecorder.EVENT_DRAG_FRAME, eventTimeNanos(event), offset);
                 break;
             case MotionEvent.ACTION_UP:
                 // 手指抬起时，进行判断当前手势的意图，从而决定是滚动到menu界面，还是滚动到content界面
                 xUp = event.getRawX();
+                flightRecorder.record(FlightRecorder.EVENT_TOUCH_UP, eventTimeNanos(event), (int) xUp);
                 if(wantShowMenu())
                 {
                     if(shouldScrollToMenu())
@@ -164,7 +226,30 @@ public class MainActivity extends Activity implements View.OnTouchListener {
                         scrollToMenu();
                     }
                 }
-                recycleVelocityTracker();
+                else if(menuOffset > 0 && menuOffset < -leftEdge)
+                {
+                    // 接住动画后点击一下，或者朝离得近的一侧拖动，menu停在中间，滚动到离得近的一侧
+                    if(menuOffset > -leftEdge / 2)
+                    {
+                        scrollToMenu();
+                    }
+                    else
+                    {
+                        scrollToContent();
+                    }
+                }
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                // 手势被取消时回到滑动之前的状态
+                flightRecorder.record(FlightRecorder.EVENT_TOUCH_CANCEL, eventTimeNanos(event), (int) event.getRawX());
+                if(isMenuVisible)
+                {
+                    scrollToMenu();
+                }
+                else
+                {
+                    scrollToContent();
+                }
                 break;
         }
         return true;
@@ -198,128 +283,89 @@ public class MainActivity extends Activity implements View.OnTouchListener {
     }
 
     /**
-     * 判断是否应该滚动将menu展示出来。如果手指移动距离大于屏幕的1/2，或者手指移动速度大于SNAP_VELOCITY，
+     * 判断是否应该滚动将menu展示出来。如果手指移动距离大于屏幕的1/2，或者手指移动速度大于SNAP_VELOCITY_DP，
      * 就认为应该滚动将menu展示出来。
      *
      * @return 如果应该滚动将menu展示出来返回true，否则返回false。
      */
     private boolean shouldScrollToMenu() {
-        return xUp-xDown>screenWidth/2 || getScrollVelocity() > SNAP_VELOCITY;
+        return xUp-xDown>screenWidth/2 || getScrollVelocity() > snapVelocity;
     }
 
     /**
      * 判断是否应该滚动将content展示出来。如果手指移动距离加上menuPadding大于屏幕的1/2，
-     * 或者手指移动速度大于SNAP_VELOCITY， 就认为应该滚动将content展示出来。
+     * 或者手指移动速度大于SNAP_VELOCITY_DP， 就认为应该滚动将content展示出来。
      *
      * @return 如果应该滚动将content展示出来返回true，否则返回false。
      */
     private boolean shouldScrollToContent() {
-        return xDown-xUp+menuPadding>screenWidth/2 || getScrollVelocity() > SNAP_VELOCITY;
+        return xDown-xUp+menuPadding>screenWidth/2 || getScrollVelocity() > snapVelocity;
     }
 
     /**
-     * 将屏幕滚动到menu界面，滚动速度设定为30.
+     * 将屏幕滚动到menu界面。
      */
     private void scrollToMenu() {
-        new ScrollTask().execute(30);
+        menuInflater.inflateNow();
+        flightRecorder.record(FlightRecorder.EVENT_SETTLE_START, System.nanoTime(), -leftEdge);
+        menuAnimator.animateTo(menuOffset, -leftEdge);
     }
 
     /**
-     * 将屏幕滚动到content界面，滚动速度设定为-30.
+     * 将屏幕滚动到content界面。
      */
     private void scrollToContent() {
-        new ScrollTask().execute(-30);
+        flightRecorder.record(FlightRecorder.EVENT_SETTLE_START, System.nanoTime(), 0);
+        menuAnimator.animateTo(menuOffset, 0);
     }
 
     /**
-     * 创建VelocityTracker对象，并将触摸content界面的滑动事件加入到VelocityTracker当中。
+     * 同时平移menu和content，效果与修改menu的leftMargin相同，但只改变translationX，不会触发requestLayout。
      *
-     * @param motionEvent
-     *            content界面的滑动事件
+     * @param offset
+     *            向右平移的距离
      */
-    private void createVelocityTracker(MotionEvent motionEvent)
-    {
-        if(mVelocityTracker==null)
-        {
-            mVelocityTracker = VelocityTracker.obtain();
+    private void setMenuOffset(int offset) {
+        menuOffset = offset;
+        if (menu != null) {
+            menu.setTranslationX(offset);
         }
-        mVelocityTracker.addMovement(motionEvent);
+        content.setTranslationX(offset);
     }
 
-
     /**
      * 获取手指在content界面滑动的速度。
      *
      * @return 滑动速度，以每秒钟移动了多少像素值为单位。
      */
     private int getScrollVelocity() {
-        mVelocityTracker.computeCurrentVelocity(1000);
         int velocity = (int) mVelocityTracker.getXVelocity();
+        flightRecorder.record(FlightRecorder.EVENT_VELOCITY, System.nanoTime(), velocity);
         return Math.abs(velocity);
     }
 
     /**
-     * 回收VelocityTracker对象。
+     * 触摸事件的时间，换算成与System.nanoTime()相同的单位。
      */
-    private void recycleVelocityTracker()
-    {
-        mVelocityTracker.recycle();
-        mVelocityTracker = null;
-
+    private static long eventTimeNanos(MotionEvent event) {
+        return event.getEventTime() * 1000000L;
     }
-    class ScrollTask extends AsyncTask<Integer,Integer,Integer>
-    {
 
-        @Override
-        protected Integer doInBackground(Integer... params) {
-            int leftMargin = menuParams.leftMargin;
-            int speed = params[0];
-            while(true)
-            {
-                Log.d(TAG,leftMargin+" ");
-                leftMargin += speed;
-                if(leftMargin>rightEdge)
-                {
-                    leftMargin = rightEdge;
-                    break;
-                }
-                else if(leftMargin<leftEdge)
-                {
-                    leftMargin = leftEdge;
-                    break;
-                }
-                publishProgress(leftMargin);
-                try {
-                    Thread.sleep(20);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-
-            if(speed>0)
-            {
-                isMenuVisible = true;
-            }
-            else
-            {
-                isMenuVisible = false;
-            }
-            return leftMargin;
-        }
-
-        @Override
-        protected void onProgressUpdate(Integer... values) {
-            menuParams.leftMargin = values[0];
-//            Log.d(TAG,menuParams.leftMargin+" ");
-            menu.setLayoutParams(menuParams);
-
-        }
+    @Override
+    protected void onDestroy() {
+        menuInflater.cancel();
+        super.onDestroy();
+    }
 
-        @Override
-        protected void onPostExecute(Integer integer) {
-            menuParams.leftMargin = integer;
-            menu.setLayoutParams(menuParams);
-        }
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        writer.print(prefix);
+        writer.print("MainActivity menuOffset=");
+        writer.print(menuOffset);
+        writer.print(" isMenuVisible=");
+        writer.println(isMenuVisible);
+        flightRecorder.dump(writer, prefix + "  ");
     }
 
 }
@@ -0,0 +1,44 @@
+package com.huangzhiwei.slidemenueasyway;
+
+import android.app.Activity;
+
+import com.huangzhiwei.slidemenu.testing.InflateCounter;
+import com.huangzhiwei.slidemenu.testing.InflateTimer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 冷启动时menu以ViewStub占位，不在setContentView中inflate，第一帧之前也不会inflate。
+ * 同时测量延迟inflate为setContentView节省的时间，写入build/reports/coldStartInflate.txt。
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ColdStartInflateTest {
+
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void menuIsNotInflatedInSetContentView() throws Exception {
+        Activity activity = Robolectric.buildActivity(MainActivity.class).create().get();
+        assertNotNull(activity.findViewById(R.id.menu_stub));
+        assertNull(activity.findViewById(R.id.menu));
+    }
+
+    @Test
+    public void menuIsNotInflatedBeforeFirstFrame() throws Exception {
+        Activity activity = Robolectric.setupActivity(MainActivity.class);
+        InflateCounter.assertMenusDeferred(activity, R.layout.activity_main, R.id.menu);
+    }
+
+    @Test
+    public void inflateTime() throws Exception {
+        InflateTimer timer = new InflateTimer(Robolectric.setupActivity(MainActivity.class));
+        timer.measureAndReport("app activity_main", R.layout.activity_main, ITERATIONS);
+    }
+}
@@ -0,0 +1,113 @@
+package com.huangzhiwei.slidemenueasyway;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.huangzhiwei.slidemenu.testing.GestureReplayer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 回放手势并统计每个手势触发的布局和绘制次数，超过预算时失败。
+ * menu和content只修改translationX，拖动和回弹都不应该触发requestLayout、测量和布局。
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MainActivityPerformanceTest {
+
+    private static final int DRAG_STEPS = 20;
+
+    private static final int FLING_STEPS = 4;
+
+    /**
+     * 按1.5像素每毫秒回弹整个menu所需的帧数，再留出余量。menu的宽度是屏幕宽度减去80像素。
+     */
+    private static final int SETTLE_DRAWS = 20;
+
+    private GestureReplayer replayer;
+
+    private View content;
+
+    private int width;
+
+    private int menuWidth;
+
+    @Before
+    public void setUp() throws Exception {
+        MainActivity activity = Robolectric.setupActivity(MainActivity.class);
+        replayer = GestureReplayer.install(activity);
+        content = activity.findViewById(R.id.content);
+        width = replayer.getWidth();
+        menuWidth = activity.findViewById(R.id.menu).getWidth();
+    }
+
+    private void openMenuAndReset() {
+        replayer.drag(content, 10, width - 10, DRAG_STEPS, false);
+        assertEquals(menuWidth, content.getTranslationX(), 0);
+        replayer.reset();
+    }
+
+    @Test
+    public void openMenu() throws Exception {
+        replayer.drag(content, 10, width - 10, DRAG_STEPS, false);
+        assertEquals(menuWidth, content.getTranslationX(), 0);
+        replayer.assertWithinBudget("open", 0, 0, 0, DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void closeMenu() throws Exception {
+        openMenuAndReset();
+        replayer.drag(content, width - 10, 10, DRAG_STEPS, false);
+        assertEquals(0, content.getTranslationX(), 0);
+        replayer.assertWithinBudget("close", 0, 0, 0, DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void cancelledDrag() throws Exception {
+        replayer.drag(content, 10, width / 2, DRAG_STEPS, true);
+        assertEquals(0, content.getTranslationX(), 0);
+        replayer.assertWithinBudget("cancel", 0, 0, 0, DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void fling() throws Exception {
+        replayer.drag(content, 10, 130, FLING_STEPS, false);
+        assertEquals(menuWidth, content.getTranslationX(), 0);
+        replayer.assertWithinBudget("fling", 0, 0, 0, FLING_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void tapDoesNothing() throws Exception {
+        // 这个界面点击content不会关闭menu，也不应该产生任何重绘
+        replayer.tap(content, width / 2);
+        assertEquals(0, content.getTranslationX(), 0);
+        replayer.assertWithinBudget("tap", 0, 0, 0, 0);
+    }
+
+    @Test
+    public void catchThenTapSettles() throws Exception {
+        // 拖过屏幕的一半后松手，menu开始滚动到完全显示
+        long downTime = SystemClock.uptimeMillis();
+        replayer.dispatch(content, downTime, MotionEvent.ACTION_DOWN, 10);
+        replayer.frame();
+        for (int i = 1; i <= DRAG_STEPS; i++) {
+            replayer.dispatch(content, downTime, MotionEvent.ACTION_MOVE, 10 + (width * 3 / 4 - 10) * i / DRAG_STEPS);
+            replayer.frame();
+        }
+        replayer.dispatch(content, downTime, MotionEvent.ACTION_UP, width * 3 / 4);
+        replayer.frame();
+        float caught = content.getTranslationX();
+        assertTrue(caught > menuWidth / 2 && caught < menuWidth);
+        // 动画进行中点击一下接住menu，松手后仍然要滚动到离得近的一侧，不能停在中间
+        replayer.tap(content, width / 2);
+        assertEquals(menuWidth, content.getTranslationX(), 0);
+    }
+}
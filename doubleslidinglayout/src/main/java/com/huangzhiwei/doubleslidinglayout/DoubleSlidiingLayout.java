@@ -1,70 +1,17 @@
 package com.huangzhiwei.doubleslidinglayout;
 
 import android.content.Context;
-import android.os.AsyncTask;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
 import android.view.View;
-import android.view.ViewConfiguration;
-import android.view.WindowManager;
-import android.widget.RelativeLayout;
+
+import com.huangzhiwei.slidecore.DrawerEngine;
+import com.huangzhiwei.slidemenu.BaseSlideLayout;
 
 /**
  * Created by huangzhiwei on 16/3/1.
  */
-public class DoubleSlidiingLayout extends RelativeLayout implements View.OnTouchListener {
-
-
-    /**
-     * 滑动状态的一种，表示未进行任何滑动。
-     */
-    public static final int DO_NOTHING = 0;
-
-    /**
-     * 滑动状态的一种，表示正在滑出左侧菜单。
-     */
-    public static final int SHOW_LEFT_MENU = 1;
-
-    /**
-     * 滑动状态的一种，表示正在滑出右侧菜单。
-     */
-    public static final int SHOW_RIGHT_MENU = 2;
-
-    /**
-     * 滑动状态的一种，表示正在隐藏左侧菜单。
-     */
-    public static final int HIDE_LEFT_MENU = 3;
-
-    /**
-     * 滑动状态的一种，表示正在隐藏右侧菜单。
-     */
-    public static final int HIDE_RIGHT_MENU = 4;
-    /**
-     * 设置滑动速度
-     */
-    private static final int SNAP_VELOCITY = 200;
-
-    /**
-     * 屏幕宽度
-     */
-    private int screenWidth;
-
-    /**
-     * 设置移动前手指可以移动的最大距离
-     */
-    private static int touchSlop;
-
-
-    /**
-     * 用于监听滑动事件的View。
-     */
-    private View mBindView;
-
-    /**
-     * 监听手部滑动的速度
-     */
-    private VelocityTracker mVelocityTracker;
+public class DoubleSlidiingLayout extends BaseSlideLayout {
 
     /**
      * 左侧菜单当前是显示还是隐藏。只有完全显示或隐藏时才会更改此值，滑动过程中此值无效。
@@ -81,6 +28,11 @@ public class DoubleSlidiingLayout extends RelativeLayout implements View.OnTouch
      */
     private boolean isSliding;
 
+    /**
+     * 手指按下时内容布局的偏移，拖动以此为起点。
+     */
+    private int dragStartOffset;
+
     /**
      * 左侧菜单布局对象。
      */
@@ -92,30 +44,30 @@ public class DoubleSlidiingLayout extends RelativeLayout implements View.OnTouch
     private View rightMenuLayout;
 
     /**
-     * 内容布局对象。
+     * 左侧菜单的宽度。
      */
-    private View contentLayout;
+    private int leftMenuWidth;
 
     /**
-     * 左侧菜单布局的参数。
+     * 右侧菜单的宽度。
      */
-    private MarginLayoutParams leftMenuLayoutParams;
+    private int rightMenuWidth;
+
 
     /**
-     * 右侧菜单布局的参数。
+     * 左右两个菜单的拖动范围和打开位置。
      */
-    private MarginLayoutParams rightMenuLayoutParams;
+    private final DrawerEngine drawerEngine = new DrawerEngine();
 
     /**
-     * 内容布局的参数。
+     * 正在拖动的菜单，DrawerEngine.EDGE_LEFT、EDGE_RIGHT，或者还没有开始拖动时为EDGE_NONE。
      */
-    private RelativeLayout.LayoutParams contentLayoutParams;
-
+    private int dragEdge = DrawerEngine.EDGE_NONE;
 
     /**
-     * 记录当前的滑动状态
+     * 第一次布局之前请求打开的菜单，还不知道菜单的宽度，布局完成后再滚动。没有时为EDGE_NONE。
      */
-    private int slideState;
+    private int pendingOpenEdge = DrawerEngine.EDGE_NONE;
 
     /**
      * 记录手指按下时的横坐标。
@@ -149,43 +101,69 @@ public class DoubleSlidiingLayout extends RelativeLayout implements View.OnTouch
      */
     public DoubleSlidiingLayout(Context context, AttributeSet attrs) {
         super(context, attrs);
-        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
-        screenWidth = windowManager.getDefaultDisplay().getWidth();
-        touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
     }
 
+    @Override
+    protected int getChildRole(int index) {
+        switch (index) {
+            case 0:
+                return CHILD_LEFT_MENU;
+            case 1:
+                return CHILD_RIGHT_MENU;
+            default:
+                return CHILD_CONTENT;
+        }
+    }
 
-    public void setScrollEvent(View bindView)
-    {
-        mBindView = bindView;
-        mBindView.setOnTouchListener(this);
+    @Override
+    protected void onContentSettled(int offset) {
+        isLeftMenuVisible = offset == leftMenuWidth;
+        isRightMenuVisible = offset == -rightMenuWidth;
+        isSliding = false;
     }
+
     /**
-     * 将界面从右侧菜单滚动到内容界面，滚动速度设定为30.
+     * 将界面从右侧菜单滚动到内容界面。
      */
     public void scrollToContentFromRightMenu() {
-        new RightMenuScrollTask().execute(30);
+        pendingOpenEdge = DrawerEngine.EDGE_NONE;
+        animateContentTo(0);
     }
 
     /**
-     * 将界面滚动到右侧菜单界面，滚动速度设定为-30.
+     * 将界面滚动到右侧菜单界面。
      */
     public void scrollToRightMenu() {
-        new RightMenuScrollTask().execute(-30);
+        inflateMenus();
+        if (rightMenuLayout == null) {
+            // 还没有完成第一次布局，例如在onCreate中调用，布局之后再滚动
+            pendingOpenEdge = DrawerEngine.EDGE_RIGHT;
+            return;
+        }
+        showMenuLayout(DrawerEngine.EDGE_RIGHT);
+        animateContentTo(-rightMenuWidth);
     }
 
     /**
-     * 将界面从左侧菜单滚动到内容界面，滚动速度设定为30.
+     * 将界面从左侧菜单滚动到内容界面。
      */
     private void scrollToContentFromLeftMenu() {
-        new LeftMenuScrollTask().execute(30);
+        pendingOpenEdge = DrawerEngine.EDGE_NONE;
+        animateContentTo(0);
     }
 
     /**
-     * 将界面滚动到左侧菜单界面，滚动速度设定为-30.
+     * 将界面滚动到左侧菜单界面。
      */
     public void scrollToLeftMenu() {
-        new LeftMenuScrollTask().execute(-30);
+        inflateMenus();
+        if (leftMenuLayout == null) {
+            // 还没有完成第一次布局，例如在onCreate中调用，布局之后再滚动
+            pendingOpenEdge = DrawerEngine.EDGE_LEFT;
+            return;
+        }
+        showMenuLayout(DrawerEngine.EDGE_LEFT);
+        animateContentTo(leftMenuWidth);
     }
 
 
@@ -193,19 +171,21 @@ public class DoubleSlidiingLayout extends RelativeLayout implements View.OnTouch
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         super.onLayout(changed, l, t, r, b);
-        if(changed)
-        {
-            leftMenuLayout = getChildAt(0);
-            leftMenuLayoutParams = (MarginLayoutParams) leftMenuLayout.getLayoutParams();
-
-            rightMenuLayout = getChildAt(1);
-            rightMenuLayoutParams = (MarginLayoutParams) rightMenuLayout.getLayoutParams();
-
-            contentLayout = getChildAt(2);
-            contentLayoutParams = (LayoutParams) contentLayout.getLayoutParams();
-
-            contentLayoutParams.width = screenWidth;
-            contentLayout.setLayoutParams(contentLayoutParams);
+        leftMenuLayout = getChildAt(0);
+        leftMenuWidth = leftMenuLayout.getMeasuredWidth();
+
+        rightMenuLayout = getChildAt(1);
+        rightMenuWidth = rightMenuLayout.getMeasuredWidth();
+        drawerEngine.setDrawerSize(DrawerEngine.EDGE_LEFT, leftMenuWidth);
+        drawerEngine.setDrawerSize(DrawerEngine.EDGE_RIGHT, rightMenuWidth);
+        if (pendingOpenEdge != DrawerEngine.EDGE_NONE) {
+            int edge = pendingOpenEdge;
+            pendingOpenEdge = DrawerEngine.EDGE_NONE;
+            if (edge == DrawerEngine.EDGE_LEFT) {
+                scrollToLeftMenu();
+            } else {
+                scrollToRightMenu();
+            }
         }
     }
 
@@ -215,15 +195,23 @@ public class DoubleSlidiingLayout extends RelativeLayout implements View.OnTouch
 
 
     @Override
-    public boolean onTouch(View v, MotionEvent event) {
-        createVelocity(event);
-        switch (event.getAction()) {
+    protected void onDragEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
                 // 手指按下时，记录按下时的坐标
                 xDown = event.getRawX();
                 yDown = event.getRawY();
-                // 将滑动状态初始化为DO_NOTHING
-                slideState = DO_NOTHING;
+                // 动画进行中按下时接住内容布局，从当前位置继续拖动内容布局所在一侧的菜单
+                int targetOffset = getTargetContentOffset();
+                if (catchSettle()) {
+                    int offset = getContentOffset();
+                    isSliding = true;
+                    dragEdge = offset > 0 || (offset == 0 && targetOffset > 0)
+                            ? DrawerEngine.EDGE_LEFT : DrawerEngine.EDGE_RIGHT;
+                } else {
+                    dragEdge = DrawerEngine.EDGE_NONE;
+                }
+                dragStartOffset = getContentOffset();
                 break;
             case MotionEvent.ACTION_MOVE:
                 xMove = event.getRawX();
@@ -231,69 +219,19 @@ public class DoubleSlidiingLayout extends RelativeLayout implements View.OnTouch
                 // 手指移动时，对比按下时的坐标，计算出移动的距离。
                 int moveDistanceX = (int) (xMove - xDown);
                 int moveDistanceY = (int) (yMove - yDown);
-                // 检查当前的滑动状态
-                checkSlideState(moveDistanceX, moveDistanceY);
-                // 根据当前滑动状态决定如何偏移内容布局
-                switch (slideState) {
-                    case SHOW_LEFT_MENU:
-                        contentLayoutParams.rightMargin = -moveDistanceX;
-                        checkLeftMenuBorder();
-                        contentLayout.setLayoutParams(contentLayoutParams);
-                        break;
-                    case HIDE_LEFT_MENU:
-                        contentLayoutParams.rightMargin = -leftMenuLayoutParams.width - moveDistanceX;
-                        checkLeftMenuBorder();
-                        contentLayout.setLayoutParams(contentLayoutParams);
-                    case SHOW_RIGHT_MENU:
-                        contentLayoutParams.leftMargin = moveDistanceX;
-                        checkRightMenuBorder();
-                        contentLayout.setLayoutParams(contentLayoutParams);
-                        break;
-                    case HIDE_RIGHT_MENU:
-                        contentLayoutParams.leftMargin = -rightMenuLayoutParams.width + moveDistanceX;
-                        checkRightMenuBorder();
-                        contentLayout.setLayoutParams(contentLayoutParams);
-                    default:
-                        break;
+                if (dragEdge == DrawerEngine.EDGE_NONE) {
+                    startDrag(drawerEngine.checkDrag(getOpenEdge(), moveDistanceX, moveDistanceY, touchSlop));
+                }
+                if (dragEdge != DrawerEngine.EDGE_NONE) {
+                    dragContentTo(drawerEngine.clampOffset(dragEdge, dragStartOffset + moveDistanceX));
                 }
                 break;
             case MotionEvent.ACTION_UP:
                 xUp = event.getRawX();
                 int upDistanceX = (int) (xUp - xDown);
                 if (isSliding) {
-                    // 手指抬起时，进行判断当前手势的意图
-                    switch (slideState) {
-                        case SHOW_LEFT_MENU:
-                            if (shouldScrollToLeftMenu()) {
-                                scrollToLeftMenu();
-                            } else {
-                                scrollToContentFromLeftMenu();
-                            }
-                            break;
-                        case HIDE_LEFT_MENU:
-                            if (shouldScrollToContentFromLeftMenu()) {
-                                scrollToContentFromLeftMenu();
-                            } else {
-                                scrollToLeftMenu();
-                            }
-                            break;
-                        case SHOW_RIGHT_MENU:
-                            if (shouldScrollToRightMenu()) {
-                                scrollToRightMenu();
-                            } else {
-                                scrollToContentFromRightMenu();
-                            }
-                            break;
-                        case HIDE_RIGHT_MENU:
-                            if (shouldScrollToContentFromRightMenu()) {
-                                scrollToContentFromRightMenu();
-                            } else {
-                                scrollToRightMenu();
-                            }
-                            break;
-                        default:
-                            break;
-                    }
+                    // 手指抬起时，根据松手的速度预测停止的位置，停在离它较近的一侧
+                    flingContentTo(computeSettleTarget(0, drawerEngine.getOpenOffset(dragEdge)));
                 } else if (upDistanceX < touchSlop && isLeftMenuVisible) {
                     // 当左侧菜单显示时，如果用户点击一下内容部分，则直接滚动到内容界面
                     scrollToContentFromLeftMenu();
@@ -301,165 +239,52 @@ public class DoubleSlidiingLayout extends RelativeLayout implements View.OnTouch
                     // 当右侧菜单显示时，如果用户点击一下内容部分，则直接滚动到内容界面
                     scrollToContentFromRightMenu();
                 }
-                recycleVelocity();
                 break;
-        }
-        if (v.isEnabled()) {
-            if (isSliding) {
-                // 正在滑动时让控件得不到焦点
-                unFocusBindView();
-                return true;
-            }
-            if (isLeftMenuVisible || isRightMenuVisible) {
-                // 当左侧或右侧布局显示时，将绑定控件的事件屏蔽掉
-                return true;
-            }
-            return false;
-        }
-        return true;
-    }
-
-
-
-
-
-    private void checkSlideState(int moveDistanceX, int moveDistanceY) {
-        if(isLeftMenuVisible)
-        {
-            if(!isSliding && Math.abs(moveDistanceX)>= touchSlop && moveDistanceX<0)
-            {
-                isSliding = true;
-                slideState = HIDE_LEFT_MENU;
-            }
-        }
-        else if(isRightMenuVisible)
-        {
-            if(!isSliding && Math.abs(moveDistanceX)>=touchSlop && moveDistanceX>0)
-            {
-                isSliding = true;
-                slideState = HIDE_RIGHT_MENU;
-            }
-        }
-        else
-        {
-            if(!isSliding &&Math.abs(moveDistanceX)>=touchSlop && moveDistanceX>0
-                    && Math.abs(moveDistanceY) < touchSlop)
-            {
-                isSliding = true;
-                slideState = SHOW_LEFT_MENU;
-                contentLayoutParams.addRule(RelativeLayout.ALIGN_PARENT_LEFT,0);
-                contentLayoutParams.addRule(RelativeLayout.ALIGN_PARENT_RIGHT);
-                contentLayout.setLayoutParams(contentLayoutParams);
-
-                leftMenuLayout.setVisibility(View.VISIBLE);
-                rightMenuLayout.setVisibility(View.GONE);
-            }
-            else if(!isSliding && Math.abs(moveDistanceX)>=touchSlop && moveDistanceX <0
-                    && Math.abs(moveDistanceY) < touchSlop)
-            {
-                isSliding = true;
-                slideState = SHOW_RIGHT_MENU;
-                contentLayoutParams.addRule(RelativeLayout.ALIGN_PARENT_RIGHT,0);
-                contentLayoutParams.addRule(RelativeLayout.ALIGN_PARENT_LEFT);
-                contentLayout.setLayoutParams(contentLayoutParams);
-
-                leftMenuLayout.setVisibility(GONE);
-                rightMenuLayout.setVisibility(VISIBLE);
-            }
-
+            case MotionEvent.ACTION_CANCEL:
+                // 手势被取消时回到滑动之前的状态
+                if (isSliding) {
+                    animateContentTo(drawerEngine.getOpenOffset(getOpenEdge()));
+                }
+                break;
         }
     }
 
     /**
-     * 在滑动过程中检查左侧菜单的边界值，防止绑定布局滑出屏幕。
+     * 开始拖动指定一侧的菜单，显示这一侧的菜单并隐藏另一侧。
      */
-    private void checkLeftMenuBorder() {
-        if (contentLayoutParams.rightMargin > 0) {
-            contentLayoutParams.rightMargin = 0;
-        } else if (contentLayoutParams.rightMargin < -leftMenuLayoutParams.width) {
-            contentLayoutParams.rightMargin = -leftMenuLayoutParams.width;
+    private void startDrag(int edge) {
+        if (edge == DrawerEngine.EDGE_NONE) {
+            return;
         }
+        showMenuLayout(edge);
+        dragEdge = edge;
+        isSliding = true;
+        onStartSliding();
     }
 
     /**
-     * 在滑动过程中检查右侧菜单的边界值，防止绑定布局滑出屏幕。
+     * 显示指定一侧的菜单并隐藏另一侧。
      */
-    private void checkRightMenuBorder() {
-        if (contentLayoutParams.leftMargin > 0) {
-            contentLayoutParams.leftMargin = 0;
-        } else if (contentLayoutParams.leftMargin < -rightMenuLayoutParams.width) {
-            contentLayoutParams.leftMargin = -rightMenuLayoutParams.width;
+    private void showMenuLayout(int edge) {
+        if (edge == DrawerEngine.EDGE_LEFT) {
+            leftMenuLayout.setVisibility(VISIBLE);
+            rightMenuLayout.setVisibility(INVISIBLE);
+        } else {
+            leftMenuLayout.setVisibility(INVISIBLE);
+            rightMenuLayout.setVisibility(VISIBLE);
         }
     }
 
-
-
-    private boolean shouldScrollToLeftMenu() {
-        return xUp-xDown > leftMenuLayoutParams.width/2  || getVelocity()>SNAP_VELOCITY;
-    }
-    private boolean shouldScrollToRightMenu() {
-        return xDown-xUp > rightMenuLayoutParams.width/2 || getVelocity()>SNAP_VELOCITY;
-    }
-
-    private boolean shouldScrollToContentFromLeftMenu() {
-        return xDown - xUp > leftMenuLayoutParams.width/2 || getVelocity()>SNAP_VELOCITY;
-    }
-
-    private boolean shouldScrollToContentFromRightMenu() {
-        return xUp-xDown > rightMenuLayoutParams.width/2 || getVelocity()>SNAP_VELOCITY;
-    }
-
-
-
-
     /**
-     * 创建VelocityTracker对象，并将触摸事件加入到VelocityTracker当中。
-     *
-     * @param event
-     *            右侧布局监听控件的滑动事件
+     * 当前完全显示的菜单，都没有显示时返回DrawerEngine.EDGE_NONE。
      */
-    private void createVelocity(MotionEvent event)
-    {
-        if(mVelocityTracker==null)
-        {
-            mVelocityTracker = VelocityTracker.obtain();
+    private int getOpenEdge() {
+        if (isLeftMenuVisible) {
+            return DrawerEngine.EDGE_LEFT;
         }
-        mVelocityTracker.addMovement(event);
-    }
-
-    /**
-     * 获取速度 根据每秒滑动的距离
-     * @return
-     */
-    private int getVelocity()
-    {
-        mVelocityTracker.computeCurrentVelocity(1000);
-        return (int) Math.abs(mVelocityTracker.getXVelocity());
-    }
-
-    /**
-     * 回收速度监控
-     */
-    private void recycleVelocity()
-    {
-        mVelocityTracker.recycle();
-        mVelocityTracker = null;
+        return isRightMenuVisible ? DrawerEngine.EDGE_RIGHT : DrawerEngine.EDGE_NONE;
     }
 
-    /**
-     * 使用可以获得焦点的控件在滑动的时候失去焦点。
-     */
-    public void unFocusBindView()
-    {
-        if(mBindView!=null)
-        {
-            mBindView.setPressed(false);
-            mBindView.setFocusable(false);
-            mBindView.setFocusableInTouchMode(false);
-        }
-    }
-
-
     /**
      * 左侧菜单是否完全显示出来，滑动过程中此值无效。
      *
@@ -479,100 +304,5 @@ public class DoubleSlidiingLayout extends RelativeLayout implements View.OnTouch
     }
 
 
-    private class RightMenuScrollTask  extends AsyncTask<Integer,Integer,Integer>{
-        @Override
-        protected Integer doInBackground(Integer...speed) {
-            int leftMargin = contentLayoutParams.leftMargin;
-            // 根据传入的速度来滚动界面，当滚动到达边界值时，跳出循环。
-            while (true) {
-                leftMargin = leftMargin + speed[0];
-                if (leftMargin < -rightMenuLayoutParams.width) {
-                    leftMargin = -rightMenuLayoutParams.width;
-                    break;
-                }
-                if (leftMargin > 0) {
-                    leftMargin = 0;
-                    break;
-                }
-                publishProgress(leftMargin);
-                // 为了要有滚动效果产生，每次循环使线程睡眠一段时间，这样肉眼才能够看到滚动动画。
-                try {
-                    Thread.sleep(15);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (speed[0] > 0) {
-                isRightMenuVisible = false;
-            } else {
-                isRightMenuVisible = true;
-            }
-            isSliding = false;
-            return leftMargin;
-        }
-
-        @Override
-        protected void onProgressUpdate(Integer... values) {
-            contentLayoutParams.leftMargin = values[0];
-            contentLayout.setLayoutParams(contentLayoutParams);
-            unFocusBindView();
-        }
-
-        @Override
-        protected void onPostExecute(Integer leftMargin) {
-            contentLayoutParams.leftMargin = leftMargin;
-            contentLayout.setLayoutParams(contentLayoutParams);
-        }
-    }
-
-    class LeftMenuScrollTask extends AsyncTask<Integer, Integer, Integer> {
-
-        @Override
-        protected Integer doInBackground(Integer... speed) {
-            int rightMargin = contentLayoutParams.rightMargin;
-            // 根据传入的速度来滚动界面，当滚动到达边界值时，跳出循环。
-            while (true) {
-                rightMargin = rightMargin + speed[0];
-                if (rightMargin < -leftMenuLayoutParams.width) {
-                    rightMargin = -leftMenuLayoutParams.width;
-                    break;
-                }
-                if (rightMargin > 0) {
-                    rightMargin = 0;
-                    break;
-                }
-                publishProgress(rightMargin);
-                // 为了要有滚动效果产生，每次循环使线程睡眠一段时间，这样肉眼才能够看到滚动动画。
-                try {
-                    Thread.sleep(15);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-
-            }
-            if (speed[0] > 0) {
-                isLeftMenuVisible = false;
-            } else {
-                isLeftMenuVisible = true;
-            }
-            isSliding = false;
-            return rightMargin;
-        }
-
-        @Override
-        protected void onProgressUpdate(Integer... rightMargin) {
-            contentLayoutParams.rightMargin = rightMargin[0];
-            contentLayout.setLayoutParams(contentLayoutParams);
-            unFocusBindView();
-        }
-
-        @Override
-        protected void onPostExecute(Integer rightMargin) {
-            contentLayoutParams.rightMargin = rightMargin;
-            contentLayout.setLayoutParams(contentLayoutParams);
-        }
-    }
-
-
 
 }
@@ -5,6 +5,9 @@ import android.support.v7.app.AppCompatActivity;
 import android.widget.ArrayAdapter;
 import android.widget.ListView;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
 public class MainActivity extends AppCompatActivity {
 
     /**
@@ -39,6 +42,11 @@ public class MainActivity extends AppCompatActivity {
         contentListAdapter = new ArrayAdapter<String>(this, android.R.layout.simple_list_item_1,
                 contentItems);
         contentList.setAdapter(contentListAdapter);
-        doubleSlidiingLayout.setScrollEvent(contentList);
+    }
+
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        doubleSlidiingLayout.dump(prefix, writer);
     }
 }
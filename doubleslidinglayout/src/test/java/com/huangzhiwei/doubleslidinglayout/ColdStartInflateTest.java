@@ -0,0 +1,65 @@
+package com.huangzhiwei.doubleslidinglayout;
+
+import android.app.Activity;
+import android.view.View;
+
+import com.huangzhiwei.slidemenu.testing.GestureReplayer;
+import com.huangzhiwei.slidemenu.testing.InflateCounter;
+import com.huangzhiwei.slidemenu.testing.InflateTimer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ActivityController;
+
+import static org.junit.Assert.*;
+
+/**
+ * 冷启动时左右两个菜单以ViewStub占位，不在setContentView中inflate，第一帧之前也不会inflate。
+ * 同时测量延迟inflate为setContentView节省的时间，写入build/reports/coldStartInflate.txt。
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ColdStartInflateTest {
+
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void menusAreNotInflatedInSetContentView() throws Exception {
+        Activity activity = Robolectric.buildActivity(MainActivity.class).create().get();
+        assertNull(activity.findViewById(R.id.left_menu));
+        assertNull(activity.findViewById(R.id.right_menu));
+
+        DoubleSlidiingLayout layout = (DoubleSlidiingLayout) activity.findViewById(R.id.bidir_sliding_layout);
+        layout.inflateMenus();
+        // 菜单在ViewStub原来的位置，子View的角色不变
+        assertSame(activity.findViewById(R.id.left_menu), layout.getChildAt(0));
+        assertSame(activity.findViewById(R.id.right_menu), layout.getChildAt(1));
+    }
+
+    @Test
+    public void menusAreNotInflatedBeforeFirstFrame() throws Exception {
+        Activity activity = Robolectric.setupActivity(MainActivity.class);
+        InflateCounter.assertMenusDeferred(activity, R.layout.activity_main, R.id.left_menu, R.id.right_menu);
+    }
+
+    @Test
+    public void scrollToMenuBeforeFirstLayout() throws Exception {
+        ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).create();
+        DoubleSlidiingLayout layout = (DoubleSlidiingLayout) controller.get().findViewById(R.id.bidir_sliding_layout);
+        // 在onCreate之后、第一次布局之前打开，布局完成后才开始滚动
+        layout.scrollToRightMenu();
+        GestureReplayer.install(controller.start().resume().visible().get());
+        assertTrue(layout.isRightLayoutVisible());
+        assertEquals(View.INVISIBLE, layout.getChildAt(0).getVisibility());
+        assertEquals(View.VISIBLE, layout.getChildAt(1).getVisibility());
+    }
+
+    @Test
+    public void inflateTime() throws Exception {
+        InflateTimer timer = new InflateTimer(Robolectric.setupActivity(MainActivity.class));
+        timer.measureAndReport("doubleslidinglayout activity_main", R.layout.activity_main, ITERATIONS);
+    }
+}
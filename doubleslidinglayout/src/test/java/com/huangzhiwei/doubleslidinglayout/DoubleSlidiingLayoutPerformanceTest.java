@@ -0,0 +1,153 @@
+package com.huangzhiwei.doubleslidinglayout;
+
+import android.view.View;
+
+import com.huangzhiwei.slidemenu.testing.GestureReplayer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 回放手势并统计每个手势触发的布局和绘制次数，超过预算时失败。
+ * 左右菜单只切换INVISIBLE和VISIBLE，内容布局只修改translationX，都不应该触发requestLayout。
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class DoubleSlidiingLayoutPerformanceTest {
+
+    private static final int DRAG_STEPS = 20;
+
+    private static final int FLING_STEPS = 4;
+
+    /**
+     * 按1.5像素每毫秒回弹整个菜单所需的帧数，再留出余量。
+     */
+    private static final int SETTLE_DRAWS = 16;
+
+    /**
+     * 手指按下的那一帧。
+     */
+    private static final int DOWN_DRAWS = 1;
+
+    private GestureReplayer replayer;
+
+    private DoubleSlidiingLayout slidingLayout;
+
+    private int width;
+
+    @Before
+    public void setUp() throws Exception {
+        MainActivity activity = Robolectric.setupActivity(MainActivity.class);
+        replayer = GestureReplayer.install(activity);
+        slidingLayout = (DoubleSlidiingLayout) activity.findViewById(R.id.bidir_sliding_layout);
+        width = replayer.getWidth();
+    }
+
+    private void openLeftMenuAndReset() {
+        replayer.drag(slidingLayout, 10, width - 10, DRAG_STEPS, false);
+        assertTrue(slidingLayout.isLeftLayoutVisible());
+        replayer.reset();
+    }
+
+    @Test
+    public void openLeftMenu() throws Exception {
+        replayer.drag(slidingLayout, 10, width - 10, DRAG_STEPS, false);
+        assertTrue(slidingLayout.isLeftLayoutVisible());
+        replayer.assertWithinBudget("open left", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void openRightMenu() throws Exception {
+        replayer.drag(slidingLayout, width - 10, 10, DRAG_STEPS, false);
+        assertTrue(slidingLayout.isRightLayoutVisible());
+        replayer.assertWithinBudget("open right", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void closeLeftMenu() throws Exception {
+        openLeftMenuAndReset();
+        replayer.drag(slidingLayout, width - 10, 10, DRAG_STEPS, false);
+        assertFalse(slidingLayout.isLeftLayoutVisible());
+        replayer.assertWithinBudget("close left", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void cancelledDrag() throws Exception {
+        replayer.drag(slidingLayout, 10, width / 2, DRAG_STEPS, true);
+        assertFalse(slidingLayout.isLeftLayoutVisible());
+        assertEquals(0, slidingLayout.getContentOffset());
+        replayer.assertWithinBudget("cancel", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void fling() throws Exception {
+        replayer.drag(slidingLayout, 10, 130, FLING_STEPS, false);
+        assertTrue(slidingLayout.isLeftLayoutVisible());
+        replayer.assertWithinBudget("fling", 0, 0, 0, DOWN_DRAWS + FLING_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void tapToClose() throws Exception {
+        openLeftMenuAndReset();
+        replayer.tap(slidingLayout, width - 10);
+        assertFalse(slidingLayout.isLeftLayoutVisible());
+        replayer.assertWithinBudget("tap", 0, 0, 0, DOWN_DRAWS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void coveredMenuIsNotDrawn() throws Exception {
+        View leftMenu = slidingLayout.getChildAt(0);
+        openLeftMenuAndReset();
+        // 打开时菜单露出的部分和内容布局留在屏幕上的部分正好铺满
+        assertEquals(0, slidingLayout.getOverdrawPixels());
+        replayer.drag(slidingLayout, width - 10, 10, DRAG_STEPS, false);
+        assertFalse(slidingLayout.isLeftLayoutVisible());
+        // 关闭后左侧菜单仍然是VISIBLE，但被内容布局完全盖住，不再绘制
+        assertEquals(View.VISIBLE, leftMenu.getVisibility());
+        assertEquals(0, slidingLayout.getOverdrawPixels());
+
+        slidingLayout.setOcclusionCullingEnabled(false);
+        replayer.frame();
+        assertEquals((long) leftMenu.getWidth() * leftMenu.getHeight(), slidingLayout.getOverdrawPixels());
+    }
+
+    @Test
+    public void scrimAndShadowAddNoPasses() throws Exception {
+        int childCount = slidingLayout.getChildCount();
+        // 遮罩和阴影默认关闭
+        slidingLayout.setScrimColor(0x99000000);
+        slidingLayout.setEdgeShadow(0x66000000, 8);
+        replayer.settle();
+        replayer.reset();
+        replayer.drag(slidingLayout, 10, width - 10, DRAG_STEPS, false);
+        replayer.assertWithinBudget("open with scrim", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS + SETTLE_DRAWS);
+        int drawsWithOverlay = replayer.getDrawCount();
+        replayer.drag(slidingLayout, width - 10, 10, DRAG_STEPS, false);
+
+        slidingLayout.setScrimColor(0);
+        slidingLayout.setEdgeShadow(0, 0);
+        replayer.settle();
+        replayer.reset();
+        replayer.drag(slidingLayout, 10, width - 10, DRAG_STEPS, false);
+        // 遮罩和阴影画在已有的绘制中，不增加View，也不增加测量、布局和绘制的次数
+        assertEquals(drawsWithOverlay, replayer.getDrawCount());
+        assertEquals(childCount, slidingLayout.getChildCount());
+    }
+
+    @Test
+    public void scrollToLeftMenuAfterEdgeTap() throws Exception {
+        // 边缘的点击会撤销预热，把两个菜单都重新隐藏
+        replayer.tap(slidingLayout, 10);
+        slidingLayout.scrollToLeftMenu();
+        replayer.settle();
+        assertTrue(slidingLayout.isLeftLayoutVisible());
+        assertEquals(View.VISIBLE, slidingLayout.getChildAt(0).getVisibility());
+        assertEquals(View.INVISIBLE, slidingLayout.getChildAt(1).getVisibility());
+    }
+}
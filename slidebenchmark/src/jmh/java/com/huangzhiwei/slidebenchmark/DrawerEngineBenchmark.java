@@ -0,0 +1,62 @@
+package com.huangzhiwei.slidebenchmark;
+
+import com.huangzhiwei.slidecore.DrawerEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * 四个方向都有抽屉时，判断拖动哪一个抽屉以及每一帧限制偏移的开销。
+ */
+@State(Scope.Thread)
+public class DrawerEngineBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private static final int TOUCH_SLOP = 24;
+
+    private static final int DRAWER_SIZE = 810;
+
+    private final DrawerEngine engine = new DrawerEngine();
+
+    private final int[] moveX = new int[SAMPLES];
+
+    private final int[] moveY = new int[SAMPLES];
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        engine.setDrawerSize(DrawerEngine.EDGE_LEFT, DRAWER_SIZE);
+        engine.setDrawerSize(DrawerEngine.EDGE_RIGHT, DRAWER_SIZE);
+        engine.setDrawerSize(DrawerEngine.EDGE_TOP, DRAWER_SIZE);
+        engine.setDrawerSize(DrawerEngine.EDGE_BOTTOM, DRAWER_SIZE);
+        // 固定种子，保证每次运行的输入相同
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            moveX[i] = random.nextInt(DRAWER_SIZE * 2) - DRAWER_SIZE;
+            moveY[i] = random.nextInt(DRAWER_SIZE * 2) - DRAWER_SIZE;
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+
+    @Benchmark
+    public int checkDrag() {
+        int i = next();
+        return engine.checkDrag((i & 4) == 0 ? DrawerEngine.EDGE_NONE : i & 3, moveX[i], moveY[i], TOUCH_SLOP);
+    }
+
+    @Benchmark
+    public int dragFrame() {
+        int i = next();
+        return engine.clampOffset(i & 3, moveX[i]);
+    }
+}
@@ -0,0 +1,38 @@
+package com.huangzhiwei.slidebenchmark;
+
+import com.huangzhiwei.slidecore.SettleAnimation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 回弹动画每一帧的插值计算。动画结束后立即反向再开始一次。
+ */
+@State(Scope.Thread)
+public class SettleAnimationBenchmark {
+
+    private static final long FRAME_NANOS = 16666667L;
+
+    private static final int MENU_WIDTH = 810;
+
+    private final SettleAnimation animation = new SettleAnimation();
+
+    private long frameTimeNanos;
+
+    @Setup
+    public void setUp() {
+        animation.start(0, MENU_WIDTH, frameTimeNanos);
+    }
+
+    @Benchmark
+    public int computeOffset() {
+        frameTimeNanos += FRAME_NANOS;
+        int offset = animation.computeOffset(frameTimeNanos);
+        if (animation.isFinished()) {
+            animation.start(offset, MENU_WIDTH - offset, frameTimeNanos);
+        }
+        return offset;
+    }
+}
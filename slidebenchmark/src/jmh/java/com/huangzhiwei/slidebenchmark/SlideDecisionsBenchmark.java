@@ -0,0 +1,56 @@
+package com.huangzhiwei.slidebenchmark;
+
+import com.huangzhiwei.slidecore.SlideDecisions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * 每个ACTION_MOVE和ACTION_UP都会执行的判断逻辑。拖动哪一个抽屉的判断见DrawerEngineBenchmark。
+ */
+@State(Scope.Thread)
+public class SlideDecisionsBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private static final int MENU_WIDTH = 810;
+
+    private final int[] moveX = new int[SAMPLES];
+
+    private final int[] velocity = new int[SAMPLES];
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        // 固定种子，保证每次运行的输入相同
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            moveX[i] = random.nextInt(MENU_WIDTH * 2) - MENU_WIDTH;
+            velocity[i] = random.nextInt(6000) - 3000;
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+
+    @Benchmark
+    public int checkMenuBorder() {
+        int i = next();
+        return SlideDecisions.clamp(moveX[i], 0, MENU_WIDTH) + SlideDecisions.clamp(moveX[i], -MENU_WIDTH, 0);
+    }
+
+    @Benchmark
+    public int settleTarget() {
+        int i = next();
+        int offset = Math.abs(moveX[i]);
+        int projected = SlideDecisions.projectOffset(offset, velocity[i], 200, 5000);
+        return SlideDecisions.settleTarget(projected, 0, MENU_WIDTH);
+    }
+}
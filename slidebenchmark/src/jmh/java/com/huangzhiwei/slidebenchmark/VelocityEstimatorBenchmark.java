@@ -0,0 +1,51 @@
+package com.huangzhiwei.slidebenchmark;
+
+import com.huangzhiwei.slidecore.VelocityEstimator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 速度计算。addSample对应每个触摸事件，computeVelocity对应手指抬起，环形数组始终是满的。
+ */
+@State(Scope.Thread)
+public class VelocityEstimatorBenchmark {
+
+    private final VelocityEstimator estimator = new VelocityEstimator();
+
+    private long time;
+
+    private float position;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < VelocityEstimator.DEFAULT_CAPACITY; i++) {
+            addSample();
+        }
+    }
+
+    private void addSample() {
+        // 约120Hz的触摸采样，速度1500px/s
+        time += 8;
+        position += 12;
+        estimator.addSample(time, position);
+    }
+
+    @Benchmark
+    public void addSampleOnly() {
+        addSample();
+    }
+
+    @Benchmark
+    public float computeVelocity() {
+        return estimator.computeVelocity();
+    }
+
+    @Benchmark
+    public float addSampleAndCompute() {
+        addSample();
+        return estimator.computeVelocity();
+    }
+}
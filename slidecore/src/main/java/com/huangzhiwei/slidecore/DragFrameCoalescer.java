@@ -0,0 +1,81 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 合并同一帧内的多次拖动位置。触摸屏的采样率高于屏幕刷新率时，一帧之内会收到多个ACTION_MOVE，
+ * 这里只保留最新的位置，在下一帧统一应用一次，中间的位置直接丢弃。
+ */
+public class DragFrameCoalescer {
+
+    /**
+     * 等待应用的最新位置。
+     */
+    private int pendingOffset;
+
+    /**
+     * 是否有等待应用的位置。
+     */
+    private boolean hasPending;
+
+    /**
+     * 已经应用的次数。
+     */
+    private int appliedCount;
+
+    /**
+     * 被后来的位置覆盖而丢弃的次数。
+     */
+    private int droppedCount;
+
+    /**
+     * 提交一个新的拖动位置。
+     *
+     * @param offset
+     *            最新的位置
+     * @return 如果需要请求下一帧返回true，本帧已经请求过则返回false
+     */
+    public boolean offer(int offset) {
+        boolean needFrame = !hasPending;
+        if (hasPending) {
+            droppedCount++;
+        }
+        pendingOffset = offset;
+        hasPending = true;
+        return needFrame;
+    }
+
+    public boolean hasPending() {
+        return hasPending;
+    }
+
+    /**
+     * 在帧回调中调用，取出本帧需要应用的位置。
+     */
+    public int consume() {
+        hasPending = false;
+        appliedCount++;
+        return pendingOffset;
+    }
+
+    /**
+     * 丢弃等待应用的位置。
+     */
+    public void clear() {
+        hasPending = false;
+    }
+
+    public int getAppliedCount() {
+        return appliedCount;
+    }
+
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * 清空计数，一般在每次手势开始时调用。
+     */
+    public void resetCounts() {
+        appliedCount = 0;
+        droppedCount = 0;
+    }
+}
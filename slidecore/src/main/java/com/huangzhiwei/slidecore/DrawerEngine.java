@@ -0,0 +1,116 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 表驱动的抽屉拖动逻辑，支持上下左右四个方向的抽屉。每条边的打开位置和拖动范围在设置抽屉大小时就计算好，
+ * 拖动的每一帧只需要按边查一次表，不需要根据状态做分支判断，抽屉的个数不影响拖动的开销。
+ * <p>
+ * 偏移沿着抽屉所在的轴计算，正值表示内容向右或向下移动，即拉出左侧或上方的抽屉。
+ * 边的编号同时也是拉出这条边的抽屉时手指移动的方向：向右为EDGE_LEFT，向左为EDGE_RIGHT，
+ * 向下为EDGE_TOP，向上为EDGE_BOTTOM，编号与1异或即得到相反的方向。
+ */
+public class DrawerEngine {
+
+    /**
+     * 表示没有抽屉。
+     */
+    public static final int EDGE_NONE = -1;
+
+    public static final int EDGE_LEFT = 0;
+
+    public static final int EDGE_RIGHT = 1;
+
+    public static final int EDGE_TOP = 2;
+
+    public static final int EDGE_BOTTOM = 3;
+
+    private static final int EDGE_COUNT = 4;
+
+    /**
+     * 每条边打开方向的符号，左侧和上方的抽屉打开时偏移为正。
+     */
+    private static final int[] SIGN = { 1, -1, 1, -1 };
+
+    /**
+     * 抽屉完全打开时内容的偏移。
+     */
+    private final int[] openOffset = new int[EDGE_COUNT];
+
+    /**
+     * 拖动这条边的抽屉时内容偏移的下限和上限。
+     */
+    private final int[] minOffset = new int[EDGE_COUNT];
+
+    private final int[] maxOffset = new int[EDGE_COUNT];
+
+    /**
+     * 手指朝每个方向移动时拉出的抽屉，这个方向上没有抽屉时为EDGE_NONE。
+     */
+    private final int[] revealEdge = { EDGE_NONE, EDGE_NONE, EDGE_NONE, EDGE_NONE };
+
+    /**
+     * 设置一条边上抽屉的大小，并计算这条边的打开位置和拖动范围。
+     *
+     * @param edge
+     *            EDGE_LEFT、EDGE_RIGHT、EDGE_TOP或EDGE_BOTTOM
+     * @param size
+     *            抽屉的宽度或高度，为0时表示这条边没有抽屉
+     */
+    public void setDrawerSize(int edge, int size) {
+        int open = SIGN[edge] * size;
+        openOffset[edge] = open;
+        minOffset[edge] = Math.min(0, open);
+        maxOffset[edge] = Math.max(0, open);
+        revealEdge[edge] = size > 0 ? edge : EDGE_NONE;
+    }
+
+    /**
+     * 手指移动超过touchSlop时判断开始拖动哪一个抽屉。按照移动较多的方向判断，
+     * 有抽屉打开时只有朝关闭方向的移动才会拖动它。
+     *
+     * @param openEdge
+     *            当前完全打开的抽屉，没有时为EDGE_NONE
+     * @param moveDistanceX
+     *            手指水平移动的距离
+     * @param moveDistanceY
+     *            手指垂直移动的距离
+     * @param touchSlop
+     *            判定为滑动之前手指可以移动的最大值
+     * @return 开始拖动的抽屉，还不能判定或者这个方向上没有抽屉时返回EDGE_NONE
+     */
+    public int checkDrag(int openEdge, int moveDistanceX, int moveDistanceY, int touchSlop) {
+        int absX = Math.abs(moveDistanceX);
+        int absY = Math.abs(moveDistanceY);
+        int direction;
+        if (absX >= touchSlop && absX >= absY) {
+            direction = moveDistanceX > 0 ? EDGE_LEFT : EDGE_RIGHT;
+        } else if (absY >= touchSlop && absY > absX) {
+            direction = moveDistanceY > 0 ? EDGE_TOP : EDGE_BOTTOM;
+        } else {
+            return EDGE_NONE;
+        }
+        if (openEdge != EDGE_NONE) {
+            return direction == (openEdge ^ 1) ? openEdge : EDGE_NONE;
+        }
+        return revealEdge[direction];
+    }
+
+    /**
+     * 将拖动的偏移限制在这条边的范围之内。
+     */
+    public int clampOffset(int edge, int offset) {
+        if (offset < minOffset[edge]) {
+            return minOffset[edge];
+        }
+        if (offset > maxOffset[edge]) {
+            return maxOffset[edge];
+        }
+        return offset;
+    }
+
+    /**
+     * 获取抽屉完全打开时内容的偏移，edge为EDGE_NONE时返回0。
+     */
+    public int getOpenOffset(int edge) {
+        return edge == EDGE_NONE ? 0 : openOffset[edge];
+    }
+}
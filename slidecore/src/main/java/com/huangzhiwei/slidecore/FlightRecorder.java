@@ -0,0 +1,121 @@
+package com.huangzhiwei.slidecore;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * 固定容量的事件环形缓冲区，记录手势阶段、偏移、速度和帧时间。每个事件只写入三个基本类型数组，
+ * 不拼接字符串也不分配内存，写满后覆盖最旧的事件。只有调用dump()时才会格式化输出。
+ * 只能在UI线程中使用。
+ */
+public class FlightRecorder {
+
+    public static final int EVENT_TOUCH_DOWN = 0;
+    public static final int EVENT_TOUCH_UP = 1;
+    public static final int EVENT_TOUCH_CANCEL = 2;
+    public static final int EVENT_DRAG_START = 3;
+    public static final int EVENT_DRAG_FRAME = 4;
+    public static final int EVENT_SETTLE_START = 5;
+    public static final int EVENT_SETTLE_FRAME = 6;
+    public static final int EVENT_SETTLED = 7;
+    public static final int EVENT_VELOCITY = 8;
+
+    private static final String[] EVENT_NAMES = {
+            "TOUCH_DOWN", "TOUCH_UP", "TOUCH_CANCEL", "DRAG_START", "DRAG_FRAME",
+            "SETTLE_START", "SETTLE_FRAME", "SETTLED", "VELOCITY"
+    };
+
+    public static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * 事件时间，单位为纳秒。帧事件使用Choreographer的帧时间。
+     */
+    private final long[] times;
+
+    private final int[] types;
+
+    /**
+     * 事件的值。触摸事件为rawX，帧事件和阶段事件为偏移，速度事件为像素每秒。
+     */
+    private final int[] values;
+
+    /**
+     * 下一个事件写入的位置。
+     */
+    private int next;
+
+    /**
+     * 记录过的事件总数，包括已经被覆盖的。
+     */
+    private long totalCount;
+
+    public FlightRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FlightRecorder(int capacity) {
+        times = new long[capacity];
+        types = new int[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * 记录一个事件。
+     *
+     * @param type
+     *            EVENT_开头的常量
+     * @param timeNanos
+     *            事件时间
+     * @param value
+     *            事件的值
+     */
+    public void record(int type, long timeNanos, int value) {
+        times[next] = timeNanos;
+        types[next] = type;
+        values[next] = value;
+        next = next + 1 == times.length ? 0 : next + 1;
+        totalCount++;
+    }
+
+    /**
+     * 当前保存的事件个数。
+     */
+    public int size() {
+        return (int) Math.min(totalCount, times.length);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void clear() {
+        next = 0;
+        totalCount = 0;
+    }
+
+    /**
+     * 按时间顺序输出保存的事件，时间以最旧的事件为起点，单位为毫秒。
+     */
+    public void dump(PrintWriter writer, String prefix) {
+        int size = size();
+        writer.print(prefix);
+        writer.print("FlightRecorder: ");
+        writer.print(size);
+        writer.print(" of ");
+        writer.print(totalCount);
+        writer.println(" events");
+        int start = size < times.length ? 0 : next;
+        long origin = times[start];
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % times.length;
+            writer.print(prefix);
+            writer.print("  +");
+            writer.print(String.format(Locale.US, "%.3f", (times[index] - origin) / 1000000.0));
+            writer.print("ms ");
+            int type = types[index];
+            writer.print(type >= 0 && type < EVENT_NAMES.length ? EVENT_NAMES[type] : String.valueOf(type));
+            writer.print(' ');
+            writer.println(values[index]);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 统计一次滑动动画的帧间隔。帧间隔按毫秒放入固定大小的直方图，记录一帧只做几次整数运算，
+ * 不会分配内存，可以在发布版本中一直开启。每次滑动开始时清空，滑动结束后通过监听器或者getter读取。
+ */
+public class FrameStats {
+
+    /**
+     * 一次滑动结束时的回调。
+     */
+    public interface OnSlideFinishedListener {
+
+        /**
+         * 在动画的最后一帧中回调，不要保存stats对象，下一次滑动开始时它会被清空。
+         */
+        void onSlideFinished(FrameStats stats);
+    }
+
+    /**
+     * 60Hz屏幕每一帧的时间。
+     */
+    public static final long DEFAULT_FRAME_BUDGET_NANOS = 1000000000L / 60;
+
+    /**
+     * 直方图的桶数，每个桶1毫秒，最后一个桶存放所有更长的间隔。
+     */
+    private static final int BUCKET_COUNT = 100;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final int[] histogram = new int[BUCKET_COUNT];
+
+    private long frameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
+
+    private OnSlideFinishedListener listener;
+
+    private boolean inSlide;
+
+    private long lastFrameTimeNanos;
+
+    private int frameCount;
+
+    private int intervalCount;
+
+    private int jankCount;
+
+    private long maxIntervalNanos;
+
+    private int slideCount;
+
+    /**
+     * 设置每一帧的时间预算，通常为1秒除以屏幕刷新率。
+     */
+    public void setFrameBudgetNanos(long frameBudgetNanos) {
+        this.frameBudgetNanos = frameBudgetNanos;
+    }
+
+    public long getFrameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+
+    public void setOnSlideFinishedListener(OnSlideFinishedListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 滑动动画开始时调用，清空上一次滑动的统计。动画进行中再次调用不会清空。
+     */
+    public void beginSlide() {
+        if (inSlide) {
+            return;
+        }
+        inSlide = true;
+        frameCount = 0;
+        intervalCount = 0;
+        jankCount = 0;
+        maxIntervalNanos = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            histogram[i] = 0;
+        }
+    }
+
+    /**
+     * 在动画的每一帧中调用。
+     *
+     * @param frameTimeNanos
+     *            Choreographer给出的帧时间
+     */
+    public void onFrame(long frameTimeNanos) {
+        if (!inSlide) {
+            return;
+        }
+        if (frameCount > 0) {
+            long interval = frameTimeNanos - lastFrameTimeNanos;
+            int bucket = (int) Math.min(interval / NANOS_PER_MILLI, BUCKET_COUNT - 1);
+            histogram[bucket]++;
+            intervalCount++;
+            if (interval > maxIntervalNanos) {
+                maxIntervalNanos = interval;
+            }
+            // 帧时间与垂直同步对齐，超过一帧半说明至少错过了一次刷新
+            if (interval > frameBudgetNanos + frameBudgetNanos / 2) {
+                jankCount++;
+            }
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        frameCount++;
+    }
+
+    /**
+     * 滑动动画结束时调用，通知监听器。
+     */
+    public void endSlide() {
+        if (!inSlide) {
+            return;
+        }
+        inSlide = false;
+        slideCount++;
+        if (listener != null) {
+            listener.onSlideFinished(this);
+        }
+    }
+
+    /**
+     * 最近一次滑动渲染的帧数。
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 最近一次滑动中超过时间预算的帧数。
+     */
+    public int getJankFrameCount() {
+        return jankCount;
+    }
+
+    /**
+     * 最近一次滑动中最长的帧间隔。
+     */
+    public long getMaxFrameIntervalNanos() {
+        return maxIntervalNanos;
+    }
+
+    /**
+     * 计算最近一次滑动帧间隔的百分位数。
+     *
+     * @param percentile
+     *            1到100之间，例如50、90、99
+     * @return 百分位数所在的桶的上界，单位为毫秒，没有帧间隔时返回0
+     */
+    public int getFrameTimePercentileMillis(int percentile) {
+        if (intervalCount == 0) {
+            return 0;
+        }
+        int target = (intervalCount * percentile + 99) / 100;
+        int cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += histogram[i];
+            if (cumulative >= target) {
+                return i + 1;
+            }
+        }
+        return BUCKET_COUNT;
+    }
+
+    /**
+     * 已经结束的滑动次数。
+     */
+    public int getSlideCount() {
+        return slideCount;
+    }
+
+    public boolean isInSlide() {
+        return inSlide;
+    }
+}
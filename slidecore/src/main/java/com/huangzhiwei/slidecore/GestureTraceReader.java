@@ -0,0 +1,114 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 读取GestureTraceWriter记录的数据。每次调用next()解码一个事件，读取过程中不会分配内存。
+ */
+public class GestureTraceReader {
+
+    private final byte[] data;
+
+    private final int length;
+
+    private int position;
+
+    private int action;
+
+    private int pointerId;
+
+    private long eventTime;
+
+    private int x;
+
+    private int y;
+
+    public GestureTraceReader(byte[] data) {
+        this(data, data.length);
+    }
+
+    public GestureTraceReader(byte[] data, int length) {
+        if (length < GestureTraceWriter.HEADER_LENGTH
+                || data[0] != GestureTraceWriter.MAGIC_0
+                || data[1] != GestureTraceWriter.MAGIC_1) {
+            throw new IllegalArgumentException("not a gesture trace");
+        }
+        if (data[2] != GestureTraceWriter.VERSION) {
+            throw new IllegalArgumentException("unsupported gesture trace version: " + data[2]);
+        }
+        this.data = data;
+        this.length = length;
+        rewind();
+    }
+
+    /**
+     * 回到第一个事件之前。
+     */
+    public void rewind() {
+        position = GestureTraceWriter.HEADER_LENGTH;
+        eventTime = 0;
+        x = 0;
+        y = 0;
+    }
+
+    /**
+     * 解码下一个事件。
+     *
+     * @return 读到事件返回true，已经没有事件返回false
+     */
+    public boolean next() {
+        if (position >= length) {
+            return false;
+        }
+        action = data[position++] & 0xFF;
+        pointerId = (int) readVarLong();
+        eventTime += unzigzag(readVarLong());
+        x += (int) unzigzag(readVarLong());
+        y += (int) unzigzag(readVarLong());
+        return true;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (position >= length) {
+                throw new IllegalStateException("truncated gesture trace");
+            }
+            byte b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 当前事件的动作，即MotionEvent.getActionMasked()的值。
+     */
+    public int getAction() {
+        return action;
+    }
+
+    public int getPointerId() {
+        return pointerId;
+    }
+
+    /**
+     * 当前事件的时间，单位为毫秒。
+     */
+    public long getEventTime() {
+        return eventTime;
+    }
+
+    public float getRawX() {
+        return (float) x / GestureTraceWriter.POSITION_SCALE;
+    }
+
+    public float getRawY() {
+        return (float) y / GestureTraceWriter.POSITION_SCALE;
+    }
+}
@@ -0,0 +1,148 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 将触摸事件记录到预先分配的字节数组中。每个事件依次写入动作、手指id、与上一个事件的时间差、
+ * 与上一个事件的坐标差，坐标差以1/8像素为单位做zigzag变长编码，一次普通的ACTION_MOVE通常只占4到6个字节。
+ * 记录过程中不会分配内存，缓冲区写满后停止记录。
+ */
+public class GestureTraceWriter {
+
+    /**
+     * 文件头，两个字节的标识加一个字节的版本号。
+     */
+    static final byte MAGIC_0 = 'G';
+    static final byte MAGIC_1 = 'T';
+    static final byte VERSION = 1;
+    static final int HEADER_LENGTH = 3;
+
+    /**
+     * 坐标的精度，1像素分为8份。
+     */
+    static final int POSITION_SCALE = 8;
+
+    /**
+     * 一个事件编码后最多占用的字节数：动作1个，手指id最多5个，时间差最多10个，坐标差各最多5个。
+     */
+    private static final int MAX_EVENT_LENGTH = 26;
+
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final byte[] buffer;
+
+    private int length;
+
+    private int eventCount;
+
+    /**
+     * 缓冲区已满，之后的事件都被丢弃。
+     */
+    private boolean full;
+
+    private long lastTime;
+
+    private int lastX;
+
+    private int lastY;
+
+    public GestureTraceWriter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public GestureTraceWriter(int capacity) {
+        if (capacity < HEADER_LENGTH + MAX_EVENT_LENGTH) {
+            throw new IllegalArgumentException("capacity too small: " + capacity);
+        }
+        buffer = new byte[capacity];
+        reset();
+    }
+
+    /**
+     * 记录一个触摸事件。
+     *
+     * @param action
+     *            MotionEvent.getActionMasked()的值
+     * @param pointerId
+     *            触发事件的手指id
+     * @param eventTimeMillis
+     *            事件时间，单位为毫秒
+     * @param rawX
+     *            屏幕坐标x
+     * @param rawY
+     *            屏幕坐标y
+     * @return 记录成功返回true，缓冲区已满返回false
+     */
+    public boolean append(int action, int pointerId, long eventTimeMillis, float rawX, float rawY) {
+        if (full || length + MAX_EVENT_LENGTH > buffer.length) {
+            full = true;
+            return false;
+        }
+        int x = Math.round(rawX * POSITION_SCALE);
+        int y = Math.round(rawY * POSITION_SCALE);
+        buffer[length++] = (byte) action;
+        writeVarLong(pointerId);
+        // 第一个事件的时间差相对于0，即记录绝对时间
+        writeVarLong(zigzag(eventTimeMillis - lastTime));
+        writeVarLong(zigzag(x - lastX));
+        writeVarLong(zigzag(y - lastY));
+        lastTime = eventTimeMillis;
+        lastX = x;
+        lastY = y;
+        eventCount++;
+        return true;
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * 清空已经记录的事件，缓冲区会被复用。
+     */
+    public void reset() {
+        buffer[0] = MAGIC_0;
+        buffer[1] = MAGIC_1;
+        buffer[2] = VERSION;
+        length = HEADER_LENGTH;
+        eventCount = 0;
+        full = false;
+        lastTime = 0;
+        lastX = 0;
+        lastY = 0;
+    }
+
+    /**
+     * 获取内部缓冲区，有效数据的长度为getLength()。
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * 复制出已经记录的数据，用于保存到文件。
+     */
+    public byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        System.arraycopy(buffer, 0, copy, 0, length);
+        return copy;
+    }
+}
@@ -0,0 +1,127 @@
+package com.huangzhiwei.slidecore;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按对数分桶的延迟直方图。每个2的幂区间再均分为8个桶，相对误差不超过12.5%。
+ * 计数保存在AtomicLongArray中，UI线程记录，任意线程都可以无锁地读取快照和清零。
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 覆盖0到Long.MAX_VALUE所需的桶数，long的最高有效位是第62位。
+     */
+    static final int BUCKET_COUNT = ((62 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * 记录一个延迟，负值按0记录。
+     *
+     * @param valueNanos
+     *            延迟，单位为纳秒
+     */
+    public void record(long valueNanos) {
+        counts.incrementAndGet(bucketFor(valueNanos));
+    }
+
+    /**
+     * 复制当前的计数。
+     *
+     * @param reset
+     *            是否在复制的同时清零，每个桶单独原子地清零，不会丢失并发记录的值
+     */
+    public Snapshot snapshot(boolean reset) {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = reset ? counts.getAndSet(i, 0) : counts.get(i);
+        }
+        return new Snapshot(copy);
+    }
+
+    /**
+     * 清零所有计数。
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    static int bucketFor(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * 返回桶所能容纳的最大值。
+     */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lower = (long) (SUB_BUCKET_COUNT + (bucket & (SUB_BUCKET_COUNT - 1))) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * 直方图某一时刻的副本。
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+
+        private final long totalCount;
+
+        Snapshot(long[] counts) {
+            this.counts = counts;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            totalCount = total;
+        }
+
+        public long getCount() {
+            return totalCount;
+        }
+
+        /**
+         * 计算百分位数。
+         *
+         * @param percentile
+         *            0到100之间，例如99
+         * @return 百分位数所在的桶的上界，单位为纳秒，没有记录时返回0
+         */
+        public long getPercentileNanos(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= target) {
+                    return bucketUpperBound(i);
+                }
+            }
+            return bucketUpperBound(counts.length - 1);
+        }
+
+        /**
+         * 获取各个桶的计数，下标与桶的序号对应。
+         */
+        public long[] getCounts() {
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 将区间记录在内存中的Tracer，用于在JVM上的测试中检查区间的结构和耗时。
+ * 区间按开始的顺序保存，超过容量之后的区间会被丢弃，但仍然需要成对调用。
+ */
+public class RecordingTracer implements Tracer {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final String[] names;
+
+    private final long[] beginTimes;
+
+    private final long[] endTimes;
+
+    private final int[] depths;
+
+    /**
+     * 尚未结束的区间的下标，被丢弃的区间为-1。
+     */
+    private final int[] openSections;
+
+    private int count;
+
+    private int depth;
+
+    private int droppedCount;
+
+    public RecordingTracer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RecordingTracer(int capacity) {
+        names = new String[capacity];
+        beginTimes = new long[capacity];
+        endTimes = new long[capacity];
+        depths = new int[capacity];
+        openSections = new int[capacity];
+    }
+
+    @Override
+    public void beginSection(String name) {
+        if (depth == openSections.length) {
+            throw new IllegalStateException("sections nested too deep: " + depth);
+        }
+        int index = -1;
+        if (count < names.length) {
+            index = count++;
+            names[index] = name;
+            beginTimes[index] = nanoTime();
+            endTimes[index] = -1;
+            depths[index] = depth;
+        } else {
+            droppedCount++;
+        }
+        openSections[depth++] = index;
+    }
+
+    @Override
+    public void endSection() {
+        if (depth == 0) {
+            throw new IllegalStateException("endSection() without beginSection()");
+        }
+        int index = openSections[--depth];
+        if (index >= 0) {
+            endTimes[index] = nanoTime();
+        }
+    }
+
+    /**
+     * 获取当前时间，测试中可以覆盖此方法使用假的时钟。
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    public int getSpanCount() {
+        return count;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * 区间的嵌套深度，最外层为0。
+     */
+    public int getDepth(int index) {
+        return depths[index];
+    }
+
+    /**
+     * 区间的耗时，尚未结束的区间返回-1。
+     */
+    public long getDurationNanos(int index) {
+        return endTimes[index] < 0 ? -1 : endTimes[index] - beginTimes[index];
+    }
+
+    /**
+     * 统计指定名称的区间个数。
+     */
+    public int countSpans(String name) {
+        int result = 0;
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否所有开始的区间都已经结束。
+     */
+    public boolean isBalanced() {
+        return depth == 0;
+    }
+
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            names[i] = null;
+        }
+        count = 0;
+        droppedCount = 0;
+    }
+}
@@ -0,0 +1,262 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 基于时间的滑动动画计算。当前位置只由经过的时间决定，与帧率以及调用的次数无关，
+ * 因此在60、90、120Hz的屏幕上同一时刻得到的位置是相同的。
+ * 支持匀速滑动，以及从松手速度开始、到达终点时速度为0的fling滑动。fling的初速度总是等于松手的速度，
+ * 持续时间被限制时曲线会相应调整，速度背离终点时先减速再掉头。
+ */
+public class SettleAnimation {
+
+    /**
+     * 默认的滑动速度，每毫秒移动的像素值。与原先每20毫秒移动30像素的节奏保持一致。
+     */
+    public static final float DEFAULT_PIXELS_PER_MILLI = 1.5f;
+
+    /**
+     * fling滑动最短的持续时间，单位为毫秒。速度再快也至少持续几帧，避免看起来像是跳过去的。
+     */
+    public static final long MIN_FLING_DURATION_MILLIS = 80;
+
+    /**
+     * 位置曲线的一种，匀速滑动。
+     */
+    private static final int CURVE_LINEAR = 0;
+
+    /**
+     * 位置曲线的一种，三次Hermite曲线，起点速度为初速度，到达终点时速度为0。
+     * 持续时间刚好是2 * distance / velocity时就是匀减速；更短时先越过终点再退回，更长时先快后慢；
+     * 初速度背离终点时先减速再掉头。
+     */
+    private static final int CURVE_HERMITE = 1;
+
+    /**
+     * 一毫秒对应的纳秒数。
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * 一秒对应的纳秒数。
+     */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /**
+     * 动画开始时的位置。
+     */
+    private int startOffset;
+
+    /**
+     * 动画结束时的位置。
+     */
+    private int finalOffset;
+
+    /**
+     * 最近一次计算出的位置。
+     */
+    private int currentOffset;
+
+    /**
+     * 动画开始的时间，单位为纳秒。
+     */
+    private long startTimeNanos;
+
+    /**
+     * 动画持续的时间，单位为纳秒。
+     */
+    private long durationNanos;
+
+    /**
+     * 动画是否已经结束。
+     */
+    private boolean finished = true;
+
+    /**
+     * 计算位置使用的曲线，CURVE_LINEAR或CURVE_HERMITE。
+     */
+    private int curve;
+
+    /**
+     * 初速度乘以持续时间，单位为像素，只在CURVE_HERMITE中使用。
+     */
+    private float startVelocityDistance;
+
+    /**
+     * 以默认速度从from滑动到to。
+     *
+     * @param from
+     *            开始位置
+     * @param to
+     *            结束位置
+     * @param startTimeNanos
+     *            开始时间，与帧时间使用同一个时钟
+     */
+    public void start(int from, int to, long startTimeNanos) {
+        start(from, to, startTimeNanos, durationFor(Math.abs(to - from), DEFAULT_PIXELS_PER_MILLI));
+    }
+
+    /**
+     * 在指定的时间内从from滑动到to。
+     *
+     * @param from
+     *            开始位置
+     * @param to
+     *            结束位置
+     * @param startTimeNanos
+     *            开始时间，与帧时间使用同一个时钟
+     * @param durationNanos
+     *            持续时间，单位为纳秒
+     */
+    public void start(int from, int to, long startTimeNanos, long durationNanos) {
+        this.startOffset = from;
+        this.finalOffset = to;
+        this.currentOffset = from;
+        this.startTimeNanos = startTimeNanos;
+        this.durationNanos = durationNanos;
+        this.curve = CURVE_LINEAR;
+        this.finished = from == to || durationNanos <= 0;
+        if (finished) {
+            currentOffset = to;
+        }
+    }
+
+    /**
+     * 以松手时的速度开始滑动到to，到达终点时速度刚好为0。速度越快持续时间越短，
+     * 但不会短于MIN_FLING_DURATION_MILLIS，也不会长于默认速度匀速滑动所需的时间。没有被限制时就是匀减速，
+     * 被限制时初速度仍然等于松手的速度：时间被拉长时先快后慢，被缩短时略微越过终点再退回。
+     * 速度为0时退化为以默认速度匀速滑动。速度背离终点时，先沿原来的方向减速，再掉头停在终点，
+     * 持续时间与匀速滑动相同。
+     *
+     * @param from
+     *            开始位置
+     * @param to
+     *            结束位置
+     * @param velocity
+     *            松手时的速度，单位为每秒移动的像素值，带有方向
+     * @param startTimeNanos
+     *            开始时间，与帧时间使用同一个时钟
+     */
+    public void startFling(int from, int to, float velocity, long startTimeNanos) {
+        int distance = Math.abs(to - from);
+        long defaultDuration = durationFor(distance, DEFAULT_PIXELS_PER_MILLI);
+        if (velocity == 0) {
+            start(from, to, startTimeNanos, defaultDuration);
+            return;
+        }
+        long duration = (velocity > 0) != (to > from)
+                ? Math.max(defaultDuration, MIN_FLING_DURATION_MILLIS * NANOS_PER_MILLI)
+                : flingDurationFor(distance, velocity);
+        start(from, to, startTimeNanos, duration);
+        if (!finished) {
+            curve = CURVE_HERMITE;
+            startVelocityDistance = velocity * duration / NANOS_PER_SECOND;
+        }
+    }
+
+    /**
+     * 计算指定帧时间的位置。到达结束时间后动画即结束。
+     *
+     * @param frameTimeNanos
+     *            当前帧的时间
+     * @return 当前帧应该显示的位置
+     */
+    public int computeOffset(long frameTimeNanos) {
+        if (finished) {
+            return currentOffset;
+        }
+        long elapsed = frameTimeNanos - startTimeNanos;
+        if (elapsed <= 0) {
+            currentOffset = startOffset;
+        } else if (elapsed >= durationNanos) {
+            currentOffset = finalOffset;
+            finished = true;
+        } else {
+            float fraction = (float) elapsed / durationNanos;
+            if (curve == CURVE_HERMITE) {
+                // 三次Hermite曲线：起点速度为初速度，终点速度为0
+                float remaining = 1 - fraction;
+                float toEnd = fraction * fraction * (3 - 2 * fraction);
+                float fromVelocity = fraction * remaining * remaining;
+                currentOffset = startOffset + Math.round((finalOffset - startOffset) * toEnd
+                        + startVelocityDistance * fromVelocity);
+                return currentOffset;
+            }
+            currentOffset = startOffset + Math.round((finalOffset - startOffset) * fraction);
+        }
+        return currentOffset;
+    }
+
+    /**
+     * 计算指定时间的速度，用于在动画中途改变终点时保持速度连续。
+     *
+     * @param timeNanos
+     *            与帧时间使用同一个时钟的时间
+     * @return 速度，单位为每秒移动的像素值，带有方向。动画已经结束时返回0
+     */
+    public float getCurrentVelocity(long timeNanos) {
+        if (finished) {
+            return 0;
+        }
+        long elapsed = Math.max(0, timeNanos - startTimeNanos);
+        if (elapsed >= durationNanos) {
+            return 0;
+        }
+        float fraction = (float) elapsed / durationNanos;
+        float velocity = (float) (finalOffset - startOffset) / durationNanos * NANOS_PER_SECOND;
+        if (curve == CURVE_HERMITE) {
+            // 对Hermite曲线求导
+            float durationSeconds = (float) durationNanos / NANOS_PER_SECOND;
+            return velocity * 6 * fraction * (1 - fraction)
+                    + startVelocityDistance / durationSeconds * (1 - fraction) * (1 - 3 * fraction);
+        }
+        return velocity;
+    }
+
+    /**
+     * 停在当前的位置，结束动画。
+     */
+    public void abortAnimation() {
+        finished = true;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public int getCurrentOffset() {
+        return currentOffset;
+    }
+
+    public int getFinalOffset() {
+        return finalOffset;
+    }
+
+    /**
+     * 根据距离和速度计算动画需要的时间。
+     *
+     * @param distance
+     *            需要滑动的距离
+     * @param pixelsPerMilli
+     *            每毫秒移动的像素值
+     * @return 持续时间，单位为纳秒
+     */
+    public static long durationFor(int distance, float pixelsPerMilli) {
+        return (long) (distance / pixelsPerMilli * NANOS_PER_MILLI);
+    }
+
+    /**
+     * 计算以指定初速度匀减速滑过一段距离所需的时间。匀减速时平均速度是初速度的一半，
+     * 因此时间为2 * distance / velocity，并限制在最短fling时间和默认匀速滑动的时间之间。
+     *
+     * @param distance
+     *            需要滑动的距离
+     * @param velocity
+     *            初速度，单位为每秒移动的像素值
+     * @return 持续时间，单位为纳秒
+     */
+    public static long flingDurationFor(int distance, float velocity) {
+        long maxDuration = durationFor(distance, DEFAULT_PIXELS_PER_MILLI);
+        long minDuration = Math.min(MIN_FLING_DURATION_MILLIS * NANOS_PER_MILLI, maxDuration);
+        long duration = (long) (2.0 * distance / Math.abs(velocity) * NANOS_PER_SECOND);
+        return Math.max(minDuration, Math.min(maxDuration, duration));
+    }
+}
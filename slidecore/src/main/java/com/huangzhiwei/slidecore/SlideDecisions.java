@@ -0,0 +1,61 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 侧滑手势的判断逻辑。从SlideLayout和DoubleSlidiingLayout中抽取出来，不依赖Android，
+ * 每个触摸事件都会调用，所有方法都只做简单的整数运算。
+ */
+public final class SlideDecisions {
+
+    private SlideDecisions() {
+    }
+
+    /**
+     * 将偏移限制在边界之内，防止布局滑出屏幕。
+     */
+    public static int clamp(int offset, int min, int max) {
+        if (offset < min) {
+            return min;
+        }
+        if (offset > max) {
+            return max;
+        }
+        return offset;
+    }
+
+    /**
+     * 预测松手之后内容布局在惯性作用下会停在哪里。假设以固定的减速度滑行，
+     * 滑行距离为v² / (2 * deceleration)。速度低于minVelocity时认为没有fling，直接返回当前位置。
+     *
+     * @param offset
+     *            松手时的偏移
+     * @param velocity
+     *            松手时的速度，单位为每秒移动的像素值，带有方向
+     * @param minVelocity
+     *            被判定为fling的最小速度
+     * @param deceleration
+     *            滑行的减速度，单位为每秒每秒的像素值
+     * @return 预测的停止位置
+     */
+    public static int projectOffset(int offset, float velocity, float minVelocity, float deceleration) {
+        if (Math.abs(velocity) < minVelocity) {
+            return offset;
+        }
+        float distance = velocity * velocity / (2 * deceleration);
+        return offset + Math.round(velocity > 0 ? distance : -distance);
+    }
+
+    /**
+     * 松手后应该停在哪一侧。返回closedOffset和openOffset中离预测位置较近的一个，距离相同时返回closedOffset。
+     *
+     * @param projectedOffset
+     *            projectOffset()预测的停止位置
+     * @param closedOffset
+     *            菜单隐藏时的偏移
+     * @param openOffset
+     *            菜单完全显示时的偏移
+     */
+    public static int settleTarget(int projectedOffset, int closedOffset, int openOffset) {
+        return Math.abs(projectedOffset - openOffset) < Math.abs(projectedOffset - closedOffset)
+                ? openOffset : closedOffset;
+    }
+}
@@ -0,0 +1,25 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 跟踪区间的接口。beginSection和endSection必须在同一个线程中成对调用，可以嵌套。
+ * 区间名称应该使用常量字符串，避免每次调用时拼接。
+ */
+public interface Tracer {
+
+    /**
+     * 不做任何记录的实现。
+     */
+    Tracer NONE = new Tracer() {
+        @Override
+        public void beginSection(String name) {
+        }
+
+        @Override
+        public void endSection() {
+        }
+    };
+
+    void beginSection(String name);
+
+    void endSection();
+}
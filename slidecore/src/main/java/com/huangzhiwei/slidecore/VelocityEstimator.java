@@ -0,0 +1,127 @@
+package com.huangzhiwei.slidecore;
+
+/**
+ * 计算手指滑动速度。用环形数组保存最近的采样点，对时间窗口内的采样做最小二乘直线拟合，
+ * 斜率即为速度。对象在布局的整个生命周期内复用，添加采样和计算速度都不会分配内存。
+ */
+public class VelocityEstimator {
+
+    /**
+     * 默认最多保留的采样个数。
+     */
+    public static final int DEFAULT_CAPACITY = 20;
+
+    /**
+     * 只使用最近这段时间内的采样，单位为毫秒。
+     */
+    private static final long HORIZON_MILLIS = 100;
+
+    /**
+     * 相邻两个采样的间隔超过此值时，认为手指中途停下过，之前的采样不再参与计算。
+     */
+    private static final long ASSUME_STOPPED_MILLIS = 40;
+
+    /**
+     * 采样的时间，单位为毫秒。
+     */
+    private final long[] times;
+
+    /**
+     * 采样的位置。
+     */
+    private final float[] positions;
+
+    /**
+     * 最新的采样在数组中的位置。
+     */
+    private int head = -1;
+
+    /**
+     * 当前保存的采样个数。
+     */
+    private int size;
+
+    public VelocityEstimator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public VelocityEstimator(int capacity) {
+        times = new long[capacity];
+        positions = new float[capacity];
+    }
+
+    /**
+     * 添加一个采样，时间必须是递增的。
+     *
+     * @param timeMillis
+     *            采样的时间，单位为毫秒
+     * @param position
+     *            采样的位置
+     */
+    public void addSample(long timeMillis, float position) {
+        if (size > 0 && timeMillis - times[head] > ASSUME_STOPPED_MILLIS) {
+            size = 0;
+        }
+        head = (head + 1) % times.length;
+        times[head] = timeMillis;
+        positions[head] = position;
+        if (size < times.length) {
+            size++;
+        }
+    }
+
+    /**
+     * 计算当前的速度。
+     *
+     * @return 速度，单位为每秒移动的像素值，带有方向
+     */
+    public float computeVelocity() {
+        if (size < 2) {
+            return 0;
+        }
+        long newest = times[head];
+        int count = 0;
+        double sumT = 0;
+        double sumX = 0;
+        for (int i = 0, index = head; i < size; i++) {
+            long age = newest - times[index];
+            if (age > HORIZON_MILLIS) {
+                break;
+            }
+            // 以最新的采样为时间原点，避免较大的时间戳损失精度
+            sumT -= age;
+            sumX += positions[index];
+            count++;
+            index = index == 0 ? times.length - 1 : index - 1;
+        }
+        if (count < 2) {
+            return 0;
+        }
+        double meanT = sumT / count;
+        double meanX = sumX / count;
+        double numerator = 0;
+        double denominator = 0;
+        for (int i = 0, index = head; i < count; i++) {
+            double t = -(newest - times[index]) - meanT;
+            numerator += t * (positions[index] - meanX);
+            denominator += t * t;
+            index = index == 0 ? times.length - 1 : index - 1;
+        }
+        if (denominator == 0) {
+            return 0;
+        }
+        return (float) (numerator / denominator * 1000);
+    }
+
+    /**
+     * 清空所有采样，在手势开始、取消或者更换手指时调用。
+     */
+    public void clear() {
+        head = -1;
+        size = 0;
+    }
+
+    public int getSampleCount() {
+        return size;
+    }
+}
@@ -0,0 +1,65 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DragFrameCoalescerTest {
+
+    private static final long MILLI = 1000000L;
+
+    /**
+     * 用240Hz的触摸采样和60Hz的屏幕刷新回放一次500ms的拖动。
+     */
+    @Test
+    public void replays240HzTraceWithAtMostOneApplyPerFrame() throws Exception {
+        DragFrameCoalescer coalescer = new DragFrameCoalescer();
+        long touchInterval = 1000000000L / 240;
+        long frameInterval = 1000000000L / 60;
+        long duration = 500 * MILLI;
+
+        long nextTouch = 0;
+        long nextFrame = frameInterval;
+        int frames = 0;
+        int requestedFrames = 0;
+        int lastOffered = 0;
+        int lastApplied = -1;
+        while (nextTouch <= duration || coalescer.hasPending()) {
+            if (nextTouch <= duration && nextTouch < nextFrame) {
+                // 模拟手指以每毫秒1像素的速度移动
+                lastOffered = (int) (nextTouch / MILLI);
+                if (coalescer.offer(lastOffered)) {
+                    requestedFrames++;
+                }
+                nextTouch += touchInterval;
+            } else {
+                int appliedBefore = coalescer.getAppliedCount();
+                if (coalescer.hasPending()) {
+                    lastApplied = coalescer.consume();
+                }
+                assertTrue(coalescer.getAppliedCount() - appliedBefore <= 1);
+                frames++;
+                nextFrame += frameInterval;
+            }
+        }
+
+        assertTrue(coalescer.getAppliedCount() <= frames);
+        assertEquals(requestedFrames, coalescer.getAppliedCount());
+        assertEquals(lastOffered, lastApplied);
+        // 每帧大约4个采样，只有1个会被应用
+        assertTrue(coalescer.getDroppedCount() >= coalescer.getAppliedCount() * 2);
+    }
+
+    @Test
+    public void clearDropsPendingOffset() throws Exception {
+        DragFrameCoalescer coalescer = new DragFrameCoalescer();
+        assertTrue(coalescer.offer(10));
+        assertFalse(coalescer.offer(20));
+        coalescer.clear();
+        assertFalse(coalescer.hasPending());
+        assertTrue(coalescer.offer(30));
+        assertEquals(30, coalescer.consume());
+        assertEquals(1, coalescer.getAppliedCount());
+        assertEquals(1, coalescer.getDroppedCount());
+    }
+}
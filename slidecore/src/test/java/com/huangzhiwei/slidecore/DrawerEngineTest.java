@@ -0,0 +1,65 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DrawerEngineTest {
+
+    private static final int TOUCH_SLOP = 24;
+
+    private static DrawerEngine fourEdges() {
+        DrawerEngine engine = new DrawerEngine();
+        engine.setDrawerSize(DrawerEngine.EDGE_LEFT, 600);
+        engine.setDrawerSize(DrawerEngine.EDGE_RIGHT, 400);
+        engine.setDrawerSize(DrawerEngine.EDGE_TOP, 300);
+        engine.setDrawerSize(DrawerEngine.EDGE_BOTTOM, 200);
+        return engine;
+    }
+
+    @Test
+    public void checkDragPicksEdgeFromDirection() throws Exception {
+        DrawerEngine engine = fourEdges();
+        int none = DrawerEngine.EDGE_NONE;
+        assertEquals(none, engine.checkDrag(none, 10, 5, TOUCH_SLOP));
+        assertEquals(DrawerEngine.EDGE_LEFT, engine.checkDrag(none, 30, 5, TOUCH_SLOP));
+        assertEquals(DrawerEngine.EDGE_RIGHT, engine.checkDrag(none, -30, 5, TOUCH_SLOP));
+        assertEquals(DrawerEngine.EDGE_TOP, engine.checkDrag(none, 5, 30, TOUCH_SLOP));
+        assertEquals(DrawerEngine.EDGE_BOTTOM, engine.checkDrag(none, 5, -30, TOUCH_SLOP));
+        // 移动较多的方向优先
+        assertEquals(DrawerEngine.EDGE_TOP, engine.checkDrag(none, 30, 40, TOUCH_SLOP));
+    }
+
+    @Test
+    public void openDrawerOnlyClosesBackwards() throws Exception {
+        DrawerEngine engine = fourEdges();
+        assertEquals(DrawerEngine.EDGE_LEFT, engine.checkDrag(DrawerEngine.EDGE_LEFT, -30, 0, TOUCH_SLOP));
+        assertEquals(DrawerEngine.EDGE_NONE, engine.checkDrag(DrawerEngine.EDGE_LEFT, 30, 0, TOUCH_SLOP));
+        assertEquals(DrawerEngine.EDGE_NONE, engine.checkDrag(DrawerEngine.EDGE_LEFT, 0, 30, TOUCH_SLOP));
+        assertEquals(DrawerEngine.EDGE_BOTTOM, engine.checkDrag(DrawerEngine.EDGE_BOTTOM, 0, 30, TOUCH_SLOP));
+    }
+
+    @Test
+    public void missingEdgeIsNeverDragged() throws Exception {
+        DrawerEngine engine = new DrawerEngine();
+        engine.setDrawerSize(DrawerEngine.EDGE_LEFT, 600);
+        assertEquals(DrawerEngine.EDGE_NONE, engine.checkDrag(DrawerEngine.EDGE_NONE, -30, 0, TOUCH_SLOP));
+        assertEquals(DrawerEngine.EDGE_NONE, engine.checkDrag(DrawerEngine.EDGE_NONE, 0, 30, TOUCH_SLOP));
+        engine.setDrawerSize(DrawerEngine.EDGE_LEFT, 0);
+        assertEquals(DrawerEngine.EDGE_NONE, engine.checkDrag(DrawerEngine.EDGE_NONE, 30, 0, TOUCH_SLOP));
+    }
+
+    @Test
+    public void clampAndOpenOffsetPerEdge() throws Exception {
+        DrawerEngine engine = fourEdges();
+        assertEquals(600, engine.getOpenOffset(DrawerEngine.EDGE_LEFT));
+        assertEquals(-400, engine.getOpenOffset(DrawerEngine.EDGE_RIGHT));
+        assertEquals(-200, engine.getOpenOffset(DrawerEngine.EDGE_BOTTOM));
+        assertEquals(0, engine.getOpenOffset(DrawerEngine.EDGE_NONE));
+        assertEquals(600, engine.clampOffset(DrawerEngine.EDGE_LEFT, 900));
+        assertEquals(0, engine.clampOffset(DrawerEngine.EDGE_LEFT, -50));
+        assertEquals(-400, engine.clampOffset(DrawerEngine.EDGE_RIGHT, -900));
+        assertEquals(0, engine.clampOffset(DrawerEngine.EDGE_RIGHT, 50));
+        assertEquals(150, engine.clampOffset(DrawerEngine.EDGE_TOP, 150));
+    }
+}
@@ -0,0 +1,50 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderTest {
+
+    private static String dump(FlightRecorder recorder) {
+        StringWriter out = new StringWriter();
+        PrintWriter writer = new PrintWriter(out);
+        recorder.dump(writer, "");
+        writer.flush();
+        return out.toString();
+    }
+
+    @Test
+    public void dumpsEventsInOrder() throws Exception {
+        FlightRecorder recorder = new FlightRecorder();
+        recorder.record(FlightRecorder.EVENT_TOUCH_DOWN, 1000000000L, 12);
+        recorder.record(FlightRecorder.EVENT_DRAG_START, 1008000000L, 40);
+        recorder.record(FlightRecorder.EVENT_DRAG_FRAME, 1016666667L, 40);
+        String[] lines = dump(recorder).split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("FlightRecorder: 3 of 3 events", lines[0].trim());
+        assertEquals("+0.000ms TOUCH_DOWN 12", lines[1].trim());
+        assertEquals("+8.000ms DRAG_START 40", lines[2].trim());
+        assertEquals("+16.667ms DRAG_FRAME 40", lines[3].trim());
+    }
+
+    @Test
+    public void oldestEventsAreOverwritten() throws Exception {
+        FlightRecorder recorder = new FlightRecorder(4);
+        for (int i = 0; i < 10; i++) {
+            recorder.record(FlightRecorder.EVENT_SETTLE_FRAME, i * 1000000L, i);
+        }
+        assertEquals(4, recorder.size());
+        assertEquals(10, recorder.getTotalCount());
+        String[] lines = dump(recorder).split("\n");
+        assertEquals("FlightRecorder: 4 of 10 events", lines[0].trim());
+        assertEquals("+0.000ms SETTLE_FRAME 6", lines[1].trim());
+        assertEquals("+3.000ms SETTLE_FRAME 9", lines[4].trim());
+
+        recorder.clear();
+        assertEquals(0, recorder.size());
+    }
+}
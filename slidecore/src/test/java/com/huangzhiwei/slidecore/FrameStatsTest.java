@@ -0,0 +1,82 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameStatsTest {
+
+    private static final long FRAME = FrameStats.DEFAULT_FRAME_BUDGET_NANOS;
+
+    @Test
+    public void smoothSlideHasNoJank() throws Exception {
+        FrameStats stats = new FrameStats();
+        stats.beginSlide();
+        for (int i = 0; i < 12; i++) {
+            stats.onFrame(5000000000L + i * FRAME);
+        }
+        stats.endSlide();
+        assertEquals(12, stats.getFrameCount());
+        assertEquals(0, stats.getJankFrameCount());
+        assertEquals(FRAME, stats.getMaxFrameIntervalNanos());
+        assertEquals(17, stats.getFrameTimePercentileMillis(50));
+        assertEquals(17, stats.getFrameTimePercentileMillis(99));
+        assertEquals(1, stats.getSlideCount());
+    }
+
+    @Test
+    public void droppedFramesAreCounted() throws Exception {
+        FrameStats stats = new FrameStats();
+        stats.beginSlide();
+        long time = 0;
+        stats.onFrame(time);
+        for (int i = 0; i < 9; i++) {
+            time += FRAME;
+            stats.onFrame(time);
+        }
+        // 一次错过两帧
+        time += FRAME * 3;
+        stats.onFrame(time);
+        stats.endSlide();
+        assertEquals(11, stats.getFrameCount());
+        assertEquals(1, stats.getJankFrameCount());
+        assertEquals(FRAME * 3, stats.getMaxFrameIntervalNanos());
+        assertEquals(17, stats.getFrameTimePercentileMillis(50));
+        assertEquals(17, stats.getFrameTimePercentileMillis(90));
+        assertEquals(50, stats.getFrameTimePercentileMillis(99));
+    }
+
+    @Test
+    public void listenerSeesFinishedSlideAndNextSlideStartsClean() throws Exception {
+        final int[] frames = new int[1];
+        FrameStats stats = new FrameStats();
+        stats.setOnSlideFinishedListener(new FrameStats.OnSlideFinishedListener() {
+            @Override
+            public void onSlideFinished(FrameStats stats) {
+                frames[0] = stats.getFrameCount();
+            }
+        });
+        stats.beginSlide();
+        stats.onFrame(0);
+        stats.onFrame(FRAME * 4);
+        stats.endSlide();
+        assertEquals(2, frames[0]);
+        assertEquals(1, stats.getJankFrameCount());
+
+        stats.beginSlide();
+        assertEquals(0, stats.getFrameCount());
+        assertEquals(0, stats.getJankFrameCount());
+        assertEquals(0, stats.getFrameTimePercentileMillis(50));
+    }
+
+    @Test
+    public void higherRefreshRateUsesTighterBudget() throws Exception {
+        FrameStats stats = new FrameStats();
+        stats.setFrameBudgetNanos(1000000000L / 120);
+        stats.beginSlide();
+        stats.onFrame(0);
+        stats.onFrame(FRAME);
+        stats.endSlide();
+        assertEquals(1, stats.getJankFrameCount());
+    }
+}
@@ -0,0 +1,87 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GestureTraceTest {
+
+    private static final int ACTION_DOWN = 0;
+    private static final int ACTION_UP = 1;
+    private static final int ACTION_MOVE = 2;
+
+    @Test
+    public void roundTrip() throws Exception {
+        GestureTraceWriter writer = new GestureTraceWriter();
+        writer.append(ACTION_DOWN, 0, 123456789L, 10.5f, 400f);
+        writer.append(ACTION_MOVE, 0, 123456797L, 32.25f, 398.875f);
+        writer.append(ACTION_MOVE, 0, 123456805L, 20f, 401f);
+        writer.append(ACTION_UP, 3, 123456813L, 0f, 0f);
+        assertEquals(4, writer.getEventCount());
+
+        GestureTraceReader reader = new GestureTraceReader(writer.toByteArray());
+        assertTrue(reader.next());
+        assertEquals(ACTION_DOWN, reader.getAction());
+        assertEquals(123456789L, reader.getEventTime());
+        assertEquals(10.5f, reader.getRawX(), 0);
+        assertEquals(400f, reader.getRawY(), 0);
+        assertTrue(reader.next());
+        assertEquals(ACTION_MOVE, reader.getAction());
+        assertEquals(123456797L, reader.getEventTime());
+        assertEquals(32.25f, reader.getRawX(), 0);
+        assertEquals(398.875f, reader.getRawY(), 0);
+        assertTrue(reader.next());
+        assertEquals(20f, reader.getRawX(), 0);
+        assertTrue(reader.next());
+        assertEquals(ACTION_UP, reader.getAction());
+        assertEquals(3, reader.getPointerId());
+        assertEquals(0f, reader.getRawX(), 0);
+        assertFalse(reader.next());
+
+        reader.rewind();
+        assertTrue(reader.next());
+        assertEquals(123456789L, reader.getEventTime());
+    }
+
+    @Test
+    public void moveEventsAreCompact() throws Exception {
+        GestureTraceWriter writer = new GestureTraceWriter();
+        writer.append(ACTION_DOWN, 0, 1000, 100, 500);
+        int start = writer.getLength();
+        for (int i = 1; i <= 100; i++) {
+            writer.append(ACTION_MOVE, 0, 1000 + i * 8, 100 + i * 7, 500 + (i % 3));
+        }
+        // 每个事件：动作1 + id 1 + 时间1 + x 2 + y 1
+        assertTrue(writer.getLength() - start <= 100 * 6);
+    }
+
+    @Test
+    public void stopsRecordingWhenFull() throws Exception {
+        GestureTraceWriter writer = new GestureTraceWriter(64);
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (writer.append(ACTION_MOVE, 0, i * 8, i, i)) {
+                accepted++;
+            }
+        }
+        assertTrue(writer.isFull());
+        assertEquals(accepted, writer.getEventCount());
+        assertTrue(writer.getLength() <= 64);
+
+        GestureTraceReader reader = new GestureTraceReader(writer.getBuffer(), writer.getLength());
+        int read = 0;
+        while (reader.next()) {
+            read++;
+        }
+        assertEquals(accepted, read);
+
+        writer.reset();
+        assertFalse(writer.isFull());
+        assertEquals(0, writer.getEventCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownData() throws Exception {
+        new GestureTraceReader(new byte[] { 1, 2, 3, 4 });
+    }
+}
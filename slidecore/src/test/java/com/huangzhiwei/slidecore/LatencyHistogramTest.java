@@ -0,0 +1,75 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    private static final long MILLI = 1000000L;
+
+    @Test
+    public void bucketsCoverValuesWithBoundedError() throws Exception {
+        long[] values = { 0, 1, 7, 8, 15, 16, 1000, 16 * MILLI, 250 * MILLI, Long.MAX_VALUE };
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketFor(value);
+            assertTrue(bucket < LatencyHistogram.BUCKET_COUNT);
+            long upper = LatencyHistogram.bucketUpperBound(bucket);
+            assertTrue(upper >= value);
+            assertTrue(upper - value <= value / 8);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketFor(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(20 * MILLI);
+        }
+        histogram.record(100 * MILLI);
+        histogram.record(400 * MILLI);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(false);
+        assertEquals(100, snapshot.getCount());
+        long p50 = snapshot.getPercentileNanos(50);
+        assertTrue(p50 >= 20 * MILLI && p50 < 23 * MILLI);
+        long p99 = snapshot.getPercentileNanos(99);
+        assertTrue(p99 >= 100 * MILLI && p99 < 113 * MILLI);
+        long max = snapshot.getPercentileNanos(100);
+        assertTrue(max >= 400 * MILLI && max < 450 * MILLI);
+    }
+
+    @Test
+    public void snapshotAndReset() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5 * MILLI);
+        histogram.record(-3);
+        assertEquals(2, histogram.snapshot(true).getCount());
+        assertEquals(0, histogram.snapshot(false).getCount());
+        assertEquals(0, histogram.snapshot(false).getPercentileNanos(99));
+    }
+
+    @Test
+    public void concurrentRecordingIsNotLost() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        histogram.record(i * 1000L);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        long drained = 0;
+        for (Thread thread : threads) {
+            drained += histogram.snapshot(true).getCount();
+            thread.join();
+        }
+        drained += histogram.snapshot(true).getCount();
+        assertEquals(40000, drained);
+    }
+}
@@ -0,0 +1,74 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RecordingTracerTest {
+
+    /**
+     * 每次读取时钟前进1000纳秒。
+     */
+    private static class FakeClockTracer extends RecordingTracer {
+        private long now;
+
+        FakeClockTracer(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        protected long nanoTime() {
+            now += 1000;
+            return now;
+        }
+    }
+
+    @Test
+    public void recordsNestedSpans() throws Exception {
+        RecordingTracer tracer = new FakeClockTracer(8);
+        tracer.beginSection("frame");
+        tracer.beginSection("measure");
+        tracer.endSection();
+        tracer.beginSection("layout");
+        tracer.endSection();
+        tracer.endSection();
+
+        assertTrue(tracer.isBalanced());
+        assertEquals(3, tracer.getSpanCount());
+        assertEquals("frame", tracer.getName(0));
+        assertEquals(0, tracer.getDepth(0));
+        assertEquals("measure", tracer.getName(1));
+        assertEquals(1, tracer.getDepth(1));
+        assertEquals(1000, tracer.getDurationNanos(1));
+        assertEquals(1, tracer.getDepth(2));
+        assertEquals(5000, tracer.getDurationNanos(0));
+        assertEquals(1, tracer.countSpans("layout"));
+    }
+
+    @Test
+    public void openSpanHasNoDuration() throws Exception {
+        RecordingTracer tracer = new FakeClockTracer(8);
+        tracer.beginSection("settle");
+        assertFalse(tracer.isBalanced());
+        assertEquals(-1, tracer.getDurationNanos(0));
+    }
+
+    @Test
+    public void spansBeyondCapacityAreDropped() throws Exception {
+        RecordingTracer tracer = new FakeClockTracer(2);
+        for (int i = 0; i < 5; i++) {
+            tracer.beginSection("dragFrame");
+            tracer.endSection();
+        }
+        assertTrue(tracer.isBalanced());
+        assertEquals(2, tracer.getSpanCount());
+        assertEquals(3, tracer.getDroppedCount());
+        tracer.clear();
+        assertEquals(0, tracer.getSpanCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unbalancedEndThrows() throws Exception {
+        new RecordingTracer().endSection();
+    }
+}
@@ -0,0 +1,135 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SettleAnimationTest {
+
+    private static final long MILLI = 1000000L;
+
+    @Test
+    public void offsetDependsOnlyOnElapsedTime() throws Exception {
+        int[] refreshRates = { 60, 90, 120 };
+        for (int hz : refreshRates) {
+            SettleAnimation animation = new SettleAnimation();
+            animation.start(0, -600, 0);
+            long frameInterval = 1000000000L / hz;
+            long time = 0;
+            while (time < 300 * MILLI) {
+                animation.computeOffset(time);
+                time += frameInterval;
+            }
+            // 无论之前跑了多少帧，同一时刻的位置都相同
+            assertEquals(-450, animation.computeOffset(300 * MILLI));
+            assertFalse(animation.isFinished());
+        }
+    }
+
+    @Test
+    public void finishesAfterDuration() throws Exception {
+        SettleAnimation animation = new SettleAnimation();
+        animation.start(0, 300, 0);
+        assertEquals(0, animation.computeOffset(0));
+        assertEquals(300, animation.computeOffset(200 * MILLI));
+        assertTrue(animation.isFinished());
+        assertEquals(300, animation.computeOffset(400 * MILLI));
+    }
+
+    @Test
+    public void abortKeepsCurrentOffset() throws Exception {
+        SettleAnimation animation = new SettleAnimation();
+        animation.start(0, 300, 0);
+        int offset = animation.computeOffset(100 * MILLI);
+        animation.abortAnimation();
+        assertTrue(animation.isFinished());
+        assertEquals(offset, animation.computeOffset(200 * MILLI));
+    }
+
+    @Test
+    public void strongFlingFinishesSooner() throws Exception {
+        // 默认速度滑动300像素需要200ms，3000px/s的fling匀减速只需要200ms的一半
+        assertEquals(200 * MILLI, SettleAnimation.flingDurationFor(300, 0));
+        assertEquals(200 * MILLI, SettleAnimation.flingDurationFor(300, 1000));
+        assertEquals(200 * MILLI, SettleAnimation.flingDurationFor(300, -3000));
+        assertEquals(SettleAnimation.MIN_FLING_DURATION_MILLIS * MILLI, SettleAnimation.flingDurationFor(300, 20000));
+    }
+
+    @Test
+    public void flingDeceleratesToTarget() throws Exception {
+        SettleAnimation animation = new SettleAnimation();
+        animation.startFling(0, 300, 6000, 0);
+        // 持续100ms，前一半时间走完3/4的距离
+        assertEquals(225, animation.computeOffset(50 * MILLI));
+        assertFalse(animation.isFinished());
+        assertEquals(300, animation.computeOffset(100 * MILLI));
+        assertTrue(animation.isFinished());
+    }
+
+    @Test
+    public void clampedFlingKeepsReleaseVelocity() throws Exception {
+        SettleAnimation animation = new SettleAnimation();
+        // 1000px/s匀减速需要600ms，被限制在匀速滑动的200ms，初速度仍然是松手的速度
+        animation.startFling(0, 300, 1000, 0);
+        assertEquals(1000, animation.getCurrentVelocity(0), 0.5);
+        assertTrue(animation.computeOffset(100 * MILLI) < 300);
+        assertEquals(300, animation.computeOffset(200 * MILLI));
+        assertTrue(animation.isFinished());
+
+        // 20000px/s匀减速只需要30ms，被限制在最短的80ms，先越过终点再退回
+        animation.startFling(0, 300, 20000, 0);
+        assertEquals(20000, animation.getCurrentVelocity(0), 0.5);
+        assertTrue(animation.computeOffset(40 * MILLI) > 300);
+        assertEquals(300, animation.computeOffset(SettleAnimation.MIN_FLING_DURATION_MILLIS * MILLI));
+        assertTrue(animation.isFinished());
+    }
+
+    @Test
+    public void flingAwayFromTargetTurnsAround() throws Exception {
+        SettleAnimation animation = new SettleAnimation();
+        animation.startFling(300, 0, 600, 0);
+        // 先沿初速度的方向继续移动，再掉头，持续时间与匀速滑动相同
+        assertEquals(600, animation.getCurrentVelocity(0), 0.5);
+        assertTrue(animation.computeOffset(10 * MILLI) > 300);
+        assertTrue(animation.computeOffset(150 * MILLI) < 300);
+        assertEquals(0, animation.computeOffset(200 * MILLI));
+        assertTrue(animation.isFinished());
+    }
+
+    @Test
+    public void velocityFollowsTheCurve() throws Exception {
+        SettleAnimation animation = new SettleAnimation();
+        animation.start(0, 300, 0);
+        assertEquals(1500, animation.getCurrentVelocity(50 * MILLI), 0.5);
+        animation.startFling(0, 300, 6000, 0);
+        assertEquals(6000, animation.getCurrentVelocity(0), 0.5);
+        assertEquals(3000, animation.getCurrentVelocity(50 * MILLI), 0.5);
+        animation.computeOffset(100 * MILLI);
+        assertEquals(0, animation.getCurrentVelocity(100 * MILLI), 0);
+    }
+
+    @Test
+    public void retargetKeepsVelocity() throws Exception {
+        SettleAnimation animation = new SettleAnimation();
+        animation.startFling(0, 300, 6000, 0);
+        int offset = animation.computeOffset(25 * MILLI);
+        float velocity = animation.getCurrentVelocity(25 * MILLI);
+        // 中途把终点改远，新的动画从当前位置和速度继续
+        animation.startFling(offset, 600, velocity, 25 * MILLI);
+        assertEquals(offset, animation.computeOffset(25 * MILLI));
+        assertEquals(velocity, animation.getCurrentVelocity(25 * MILLI), 0.5);
+    }
+
+    @Test
+    public void reverseKeepsVelocity() throws Exception {
+        SettleAnimation animation = new SettleAnimation();
+        animation.startFling(0, 300, 6000, 0);
+        int offset = animation.computeOffset(25 * MILLI);
+        float velocity = animation.getCurrentVelocity(25 * MILLI);
+        // 中途掉头回到起点，速度不会突变
+        animation.startFling(offset, 0, velocity, 25 * MILLI);
+        assertEquals(offset, animation.computeOffset(25 * MILLI));
+        assertEquals(velocity, animation.getCurrentVelocity(25 * MILLI), 0.5);
+        assertTrue(animation.computeOffset(30 * MILLI) > offset);
+    }
+}
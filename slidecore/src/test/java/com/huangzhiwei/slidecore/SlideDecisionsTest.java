@@ -0,0 +1,34 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SlideDecisionsTest {
+
+    @Test
+    public void clamp() throws Exception {
+        assertEquals(0, SlideDecisions.clamp(-5, 0, 810));
+        assertEquals(810, SlideDecisions.clamp(900, 0, 810));
+        assertEquals(-810, SlideDecisions.clamp(-900, -810, 0));
+        assertEquals(300, SlideDecisions.clamp(300, 0, 810));
+    }
+
+    @Test
+    public void projectOffset() throws Exception {
+        // 速度太小时不算fling
+        assertEquals(100, SlideDecisions.projectOffset(100, 150, 200, 5000));
+        assertEquals(200, SlideDecisions.projectOffset(100, 1000, 200, 5000));
+        assertEquals(0, SlideDecisions.projectOffset(100, -1000, 200, 5000));
+    }
+
+    @Test
+    public void settleTarget() throws Exception {
+        assertEquals(0, SlideDecisions.settleTarget(300, 0, 810));
+        assertEquals(810, SlideDecisions.settleTarget(500, 0, 810));
+        assertEquals(-810, SlideDecisions.settleTarget(-2000, 0, -810));
+        assertEquals(0, SlideDecisions.settleTarget(405, 0, 810));
+        // 刚开始拖动就快速甩出，预测位置越过中点即打开菜单
+        assertEquals(810, SlideDecisions.settleTarget(SlideDecisions.projectOffset(50, 3000, 200, 5000), 0, 810));
+    }
+}
@@ -0,0 +1,73 @@
+package com.huangzhiwei.slidecore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VelocityEstimatorTest {
+
+    /**
+     * 一次真实的向右快速滑动，采样间隔约8ms。
+     */
+    private static final long[] FLING_TIMES = { 1000, 1008, 1016, 1025, 1033, 1041, 1050, 1058 };
+    private static final float[] FLING_POSITIONS = { 100, 112, 126, 142, 160, 179, 200, 221 };
+
+    @Test
+    public void constantSpeedGivesExactVelocity() throws Exception {
+        VelocityEstimator estimator = new VelocityEstimator();
+        for (int i = 0; i <= 10; i++) {
+            estimator.addSample(5000 + i * 10, 50 + i * 15);
+        }
+        assertEquals(1500, estimator.computeVelocity(), 0.01);
+    }
+
+    @Test
+    public void recordedFlingIsPositiveAndPlausible() throws Exception {
+        VelocityEstimator estimator = new VelocityEstimator();
+        for (int i = 0; i < FLING_TIMES.length; i++) {
+            estimator.addSample(FLING_TIMES[i], FLING_POSITIONS[i]);
+        }
+        float velocity = estimator.computeVelocity();
+        // 平均速度约为 121px / 58ms，拟合结果应该落在同一量级
+        assertTrue(velocity > 1800 && velocity < 2600);
+    }
+
+    @Test
+    public void oldSamplesFallOutOfTheRing() throws Exception {
+        VelocityEstimator estimator = new VelocityEstimator(4);
+        estimator.addSample(0, 0);
+        estimator.addSample(10, 100);
+        estimator.addSample(20, 200);
+        // 反向移动，只有最近的4个采样参与计算
+        estimator.addSample(30, 190);
+        estimator.addSample(40, 180);
+        estimator.addSample(50, 170);
+        estimator.addSample(60, 160);
+        assertEquals(4, estimator.getSampleCount());
+        assertEquals(-1000, estimator.computeVelocity(), 0.01);
+    }
+
+    @Test
+    public void pauseResetsVelocity() throws Exception {
+        VelocityEstimator estimator = new VelocityEstimator();
+        estimator.addSample(0, 0);
+        estimator.addSample(10, 50);
+        estimator.addSample(20, 100);
+        // 手指停留后再抬起，不应该算作快速滑动
+        estimator.addSample(200, 101);
+        assertEquals(0, estimator.computeVelocity(), 0.01);
+    }
+
+    @Test
+    public void clearDropsAllSamples() throws Exception {
+        VelocityEstimator estimator = new VelocityEstimator();
+        estimator.addSample(0, 0);
+        estimator.addSample(10, 50);
+        estimator.clear();
+        assertEquals(0, estimator.getSampleCount());
+        assertEquals(0, estimator.computeVelocity(), 0.01);
+        estimator.addSample(100, 0);
+        estimator.addSample(110, -20);
+        assertEquals(-2000, estimator.computeVelocity(), 0.01);
+    }
+}
@@ -0,0 +1,30 @@
+package com.huangzhiwei.slidemenu;
+
+import android.os.Build;
+import android.os.Trace;
+
+import com.huangzhiwei.slidecore.Tracer;
+
+/**
+ * 将区间写入系统trace，在systrace中与应用自己的区间显示在一起。API 18以下不做任何事情。
+ */
+public class AndroidTracer implements Tracer {
+
+    public static final AndroidTracer INSTANCE = new AndroidTracer();
+
+    private static final boolean SUPPORTED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+
+    @Override
+    public void beginSection(String name) {
+        if (SUPPORTED) {
+            Trace.beginSection(name);
+        }
+    }
+
+    @Override
+    public void endSection() {
+        if (SUPPORTED) {
+            Trace.endSection();
+        }
+    }
+}
@@ -0,0 +1,1540 @@
+package com.huangzhiwei.slidemenu;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.support.v4.view.NestedScrollingParent;
+import android.support.v4.view.NestedScrollingParentHelper;
+import android.support.v4.view.ViewCompat;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewStub;
+import android.view.WindowManager;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+import com.huangzhiwei.slidecore.DragFrameCoalescer;
+import com.huangzhiwei.slidecore.DrawerEngine;
+import com.huangzhiwei.slidecore.FlightRecorder;
+import com.huangzhiwei.slidecore.FrameStats;
+import com.huangzhiwei.slidecore.GestureTraceWriter;
+import com.huangzhiwei.slidecore.LatencyHistogram;
+import com.huangzhiwei.slidecore.SlideDecisions;
+import com.huangzhiwei.slidecore.Tracer;
+
+/**
+ * 侧滑菜单布局的基类。自己完成测量和布局，每次测量中每个子View只会被测量一次，
+ * 菜单固定在左右两侧，内容布局铺满整个布局，滑动时只修改内容布局的translationX，
+ * 不会修改任何布局参数。
+ * 侧滑手势在onInterceptTouchEvent中识别：菜单隐藏时只跟踪在边缘区域内按下的手势，
+ * 横向移动超过touchSlop才拦截，纵向移动则交还给子View，内容布局中的子View不需要做任何绑定。
+ * 同时作为嵌套滚动的父布局，只消耗横向的滚动距离，纵向的滚动完全交给RecyclerView等嵌套滚动的子View。
+ * 菜单可以在布局文件中用ViewStub占位，第一帧之后主线程空闲时才inflate，手指在边缘按下时会提前完成。
+ * 在边缘按下时还会预先显示这一侧的菜单并开启硬件层，让菜单的绘制和光栅化在越过touchSlop之前完成，
+ * 手势被判定为纵向滑动或者没有滑动就抬起时撤销。
+ * 绘制时把每个子View裁剪到屏幕上露出来的部分，被不透明的内容布局完全盖住或者完全移出屏幕的子View不绘制。
+ * 菜单拉出时在内容布局上绘制随偏移变化的遮罩，在内容布局的边缘绘制阴影，都直接画在dispatchDraw中，不需要额外的View。
+ */
+public abstract class BaseSlideLayout extends ViewGroup implements NestedScrollingParent {
+
+    /**
+     * 滚动动画停止时的回调接口。
+     */
+    public interface OnSettleListener {
+
+        /**
+         * 内容布局停在了新的位置。中途转向的动画只在最后停下时回调一次，停在原来的位置时不回调。
+         *
+         * @param offset
+         *            内容布局最终的偏移
+         */
+        void onSettled(int offset);
+    }
+
+    /**
+     * 菜单位置和状态的回调接口，所有参数都是基本类型。菜单用DrawerEngine.EDGE_LEFT或EDGE_RIGHT表示。
+     */
+    public interface DrawerListener {
+
+        /**
+         * 菜单的位置改变，每一帧最多回调一次。
+         *
+         * @param edge
+         *            正在拉出的菜单
+         * @param slideOffset
+         *            菜单打开的比例，0表示完全隐藏，1表示完全显示
+         */
+        void onDrawerSlide(int edge, float slideOffset);
+
+        /**
+         * 菜单完全显示。
+         */
+        void onDrawerOpened(int edge);
+
+        /**
+         * 菜单完全隐藏。
+         */
+        void onDrawerClosed(int edge);
+
+        /**
+         * 拖动状态改变。
+         *
+         * @param newState
+         *            STATE_IDLE、STATE_DRAGGING或STATE_SETTLING
+         */
+        void onDrawerStateChanged(int newState);
+    }
+
+    /**
+     * 拖动状态的一种，表示内容布局静止。
+     */
+    public static final int STATE_IDLE = 0;
+
+    /**
+     * 拖动状态的一种，表示内容布局正在被手指或者嵌套滚动拖动。
+     */
+    public static final int STATE_DRAGGING = 1;
+
+    /**
+     * 拖动状态的一种，表示内容布局正在以动画滚动到终点。
+     */
+    public static final int STATE_SETTLING = 2;
+
+    private static final DrawerListener[] NO_DRAWER_LISTENERS = new DrawerListener[0];
+
+    /**
+     * 子View的角色之一，表示内容布局。
+     */
+    protected static final int CHILD_CONTENT = 0;
+
+    /**
+     * 子View的角色之一，表示固定在左侧的菜单。
+     */
+    protected static final int CHILD_LEFT_MENU = 1;
+
+    /**
+     * 子View的角色之一，表示固定在右侧的菜单。
+     */
+    protected static final int CHILD_RIGHT_MENU = 2;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * 默认的边缘区域宽度，单位为dp。
+     */
+    private static final int DEFAULT_EDGE_SIZE_DP = 20;
+
+    /**
+     * 被判定为fling的最小速度，单位为每秒移动的dp值。
+     */
+    private static final float MIN_FLING_VELOCITY_DP = 200;
+
+    /**
+     * 预测fling停止位置时使用的减速度，单位为每秒每秒的dp值。
+     */
+    private static final float FLING_DECELERATION_DP = 2000;
+
+    /**
+     * 菜单完全打开时内容布局上遮罩的默认颜色。默认不绘制遮罩，保持原来的外观，需要时调用setScrimColor()开启。
+     */
+    private static final int DEFAULT_SCRIM_COLOR = 0;
+
+    /**
+     * trace区间的名称。
+     */
+    public static final String SECTION_DRAG_START = "SlideMenu:dragStart";
+    public static final String SECTION_DRAG_FRAME = "SlideMenu:dragFrame";
+    public static final String SECTION_SETTLE_START = "SlideMenu:settleStart";
+    public static final String SECTION_SETTLE_FRAME = "SlideMenu:settleFrame";
+    public static final String SECTION_MEASURE = "SlideMenu:onMeasure";
+    public static final String SECTION_LAYOUT = "SlideMenu:onLayout";
+    public static final String SECTION_WARM_UP = "SlideMenu:warmUp";
+
+    /**
+     * 屏幕宽度
+     */
+    protected int screenWidth;
+
+    /**
+     * 在被判定为滚动之前用户手指可以移动的最大值。
+     */
+    protected int touchSlop;
+
+    /**
+     * 被判定为fling的最小速度，已经按照屏幕密度换算成像素值。
+     */
+    private final float minFlingVelocity;
+
+    /**
+     * 预测fling停止位置时使用的减速度，已经按照屏幕密度换算成像素值。
+     */
+    private final float flingDeceleration;
+
+    /**
+     * 菜单隐藏时，只有在这个宽度的边缘区域内按下才会跟踪侧滑手势，单位为像素。
+     */
+    private int edgeSize;
+
+    /**
+     * 布局中是否有不是GONE的左侧菜单或者它的ViewStub，决定左边缘区域是否有效。每次测量时重新判断。
+     */
+    private boolean hasLeftMenu;
+
+    /**
+     * 布局中是否有不是GONE的右侧菜单或者它的ViewStub，决定右边缘区域是否有效。每次测量时重新判断。
+     */
+    private boolean hasRightMenu;
+
+    /**
+     * 当前手势是否由侧滑布局跟踪。按下的位置不在边缘区域，或者手势被判定为纵向滑动时为false。
+     */
+    private boolean tracking;
+
+    /**
+     * 当前手势是否已经被判定为侧滑，此后的事件都由侧滑布局处理。
+     */
+    private boolean dragging;
+
+    /**
+     * 是否在边缘按下时预先显示了菜单并开启了硬件层，开始滑动之后不再需要撤销。
+     */
+    private boolean warmedUp;
+
+    /**
+     * 手指按下的位置，用于判断手势的方向。
+     */
+    private float downX;
+
+    private float downY;
+
+    /**
+     * 内容布局可以移动到的范围，由菜单测量后的宽度决定。
+     */
+    private int minContentOffset;
+
+    private int maxContentOffset;
+
+    /**
+     * 布局文件中以ViewStub占位的菜单，第一帧之后或者需要使用菜单时才inflate。
+     */
+    private final DeferredInflater menuInflater = new DeferredInflater();
+
+    private final NestedScrollingParentHelper nestedScrollingHelper = new NestedScrollingParentHelper(this);
+
+    /**
+     * 是否正在由嵌套滚动的子View剩余的横向滚动距离拖动内容布局。
+     */
+    private boolean nestedDragging;
+
+    /**
+     * 嵌套滚动拖动的目标偏移，拖动会合并到下一帧，所以不能直接使用contentOffset。
+     */
+    private int nestedOffset;
+
+    /**
+     * 嵌套滚动结束时内容布局的速度，单位为每秒移动的像素值。
+     */
+    private float nestedVelocity;
+
+    /**
+     * 内容布局。
+     */
+    private View contentView;
+
+    /**
+     * 内容布局当前的水平偏移，正值表示向右移动。
+     */
+    private int contentOffset;
+
+    /**
+     * 内容布局的滚动动画，每一帧更新一次内容布局的偏移。
+     */
+    private SlideAnimator contentAnimator;
+
+    /**
+     * 滚动动画停止时的回调，为null时不回调。
+     */
+    private OnSettleListener settleListener;
+
+    /**
+     * 内容布局最近一次停止时的偏移。
+     */
+    private int settledOffset;
+
+    /**
+     * 菜单的回调。添加和删除时替换整个数组，回调时直接遍历，不会创建迭代器，回调中也可以安全地删除自己。
+     */
+    private DrawerListener[] drawerListeners = NO_DRAWER_LISTENERS;
+
+    /**
+     * 当前的拖动状态。
+     */
+    private int drawerState = STATE_IDLE;
+
+    /**
+     * 最近一次回调onDrawerSlide时的偏移和帧时间，保证每一帧最多回调一次。
+     */
+    private int dispatchedSlideOffset;
+
+    private long dispatchedSlideFrameNanos = -1;
+
+    /**
+     * 最近一次拉出的菜单，内容布局回到原位时仍然使用它。
+     */
+    private int slideEdge = DrawerEngine.EDGE_NONE;
+
+    /**
+     * 当前完全显示的菜单，没有时为EDGE_NONE。
+     */
+    private int openedEdge = DrawerEngine.EDGE_NONE;
+
+    /**
+     * 滚动动画的帧间隔统计。
+     */
+    private final FrameStats frameStats = new FrameStats();
+
+    /**
+     * 从越过touchSlop的触摸事件到内容布局第一次移动的延迟。
+     */
+    private final LatencyHistogram dragStartLatency = new LatencyHistogram();
+
+    /**
+     * 松手触发的回弹从第一帧到停在边缘的时间，两端都是Choreographer的帧时间。
+     */
+    private final LatencyHistogram settleLatency = new LatencyHistogram();
+
+    /**
+     * 最近一个触摸事件的时间，单位为纳秒，与Choreographer的帧时间使用同一个时钟。
+     */
+    private long lastTouchTimeNanos;
+
+    /**
+     * 最近一个被记录的触摸事件，停止跟踪时用来补记ACTION_CANCEL。
+     */
+    private int lastPointerId;
+
+    private long lastEventTime;
+
+    private float lastRawX;
+
+    private float lastRawY;
+
+    /**
+     * 越过touchSlop的事件时间，等待第一次移动时为非负值。
+     */
+    private long slideStartTimeNanos = -1;
+
+    /**
+     * 正在分发的ACTION_UP的时间，这次分发结束后清除。
+     */
+    private long releaseTimeNanos = -1;
+
+    /**
+     * 当前动画是否由松手触发，只有这样的动画计入settleLatency。
+     */
+    private boolean settleFromRelease;
+
+    /**
+     * 当前动画第一帧的帧时间，还没有到第一帧时为-1。
+     */
+    private long settleStartTimeNanos = -1;
+
+    /**
+     * 在ACTION_UP分发结束后清除releaseTimeNanos，之后通过按钮等方式触发的动画不计入松手延迟。
+     */
+    private final Runnable clearReleaseTime = new Runnable() {
+        @Override
+        public void run() {
+            releaseTimeNanos = -1;
+        }
+    };
+
+    /**
+     * 记录手势阶段、偏移、速度和帧时间，出现卡顿时通过dump()输出。
+     */
+    private final FlightRecorder flightRecorder = new FlightRecorder();
+
+    /**
+     * 拖动、回弹、测量、布局和菜单inflate的trace区间写入这里，默认写入系统trace。
+     */
+    private Tracer tracer = AndroidTracer.INSTANCE;
+
+    /**
+     * 滑动期间为菜单和内容布局开启硬件层。
+     */
+    private HardwareLayerHelper layerHelper = new HardwareLayerHelper(3);
+
+    /**
+     * 是否裁掉被内容布局盖住和移出屏幕的部分。
+     */
+    private boolean occlusionCullingEnabled = true;
+
+    /**
+     * 最近一次绘制中子View绘制的像素数，用于计算重复绘制的像素。
+     */
+    private long drawnPixels;
+
+    /**
+     * 菜单完全打开时遮罩的颜色，偏移越小越透明，透明度为0时不绘制遮罩。
+     */
+    private int scrimColor = DEFAULT_SCRIM_COLOR;
+
+    /**
+     * 阴影最深处的颜色。
+     */
+    private int shadowColor;
+
+    /**
+     * 阴影的宽度，单位为像素，为0时不绘制阴影。默认不绘制阴影，需要时调用setEdgeShadow()开启。
+     */
+    private int shadowSize;
+
+    /**
+     * 从透明到shadowColor的水平渐变，宽度为shadowSize，只在尺寸或者阴影的设置改变时重新创建。
+     * 右侧菜单的阴影水平翻转后使用同一个渐变。
+     */
+    private LinearGradient edgeShadow;
+
+    /**
+     * 绘制遮罩和阴影共用的画笔。
+     */
+    private final Paint overlayPaint = new Paint();
+
+    /**
+     * 合并同一帧内的多次拖动，每帧只应用最新的位置。
+     */
+    private final DragFrameCoalescer dragCoalescer = new DragFrameCoalescer();
+
+    private final Choreographer choreographer;
+
+    /**
+     * 用于计算手指滑动的速度，整个生命周期内复用。
+     */
+    private final PointerVelocityTracker velocityTracker = new PointerVelocityTracker();
+
+    /**
+     * 记录侧滑布局跟踪的触摸事件，为null时不记录。
+     */
+    private GestureTraceWriter gestureRecorder;
+
+    /**
+     * 拖动时的帧回调，在每一帧开始时应用最新的拖动位置。
+     */
+    private final Choreographer.FrameCallback dragFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            tracer.beginSection(SECTION_DRAG_FRAME);
+            if (dragCoalescer.hasPending()) {
+                setContentOffset(dragCoalescer.consume());
+                flightRecorder.record(FlightRecorder.EVENT_DRAG_FRAME, frameTimeNanos, contentOffset);
+                dispatchDrawerSlide(frameTimeNanos);
+                if (slideStartTimeNanos >= 0) {
+                    dragStartLatency.record(frameTimeNanos - slideStartTimeNanos);
+                    slideStartTimeNanos = -1;
+                }
+            }
+            tracer.endSection();
+        }
+    };
+
+    public BaseSlideLayout(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        Display display = windowManager.getDefaultDisplay();
+        screenWidth = display.getWidth();
+        float refreshRate = display.getRefreshRate();
+        if (refreshRate > 0) {
+            frameStats.setFrameBudgetNanos((long) (1000000000L / refreshRate));
+        }
+        touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        float density = context.getResources().getDisplayMetrics().density;
+        minFlingVelocity = MIN_FLING_VELOCITY_DP * density;
+        flingDeceleration = FLING_DECELERATION_DP * density;
+        edgeSize = (int) (DEFAULT_EDGE_SIZE_DP * density + 0.5f);
+        choreographer = Choreographer.getInstance();
+        menuInflater.setTracer(tracer);
+        contentAnimator = new SlideAnimator(new SlideAnimator.OnSlideListener() {
+            @Override
+            public void onSlideUpdate(int offset) {
+                tracer.beginSection(SECTION_SETTLE_FRAME);
+                // 掉头时会沿原来的方向多走一段，不能超出菜单的范围
+                offset = SlideDecisions.clamp(offset, minContentOffset, maxContentOffset);
+                if (settleStartTimeNanos < 0) {
+                    settleStartTimeNanos = contentAnimator.getLastFrameTimeNanos();
+                }
+                setContentOffset(offset);
+                flightRecorder.record(FlightRecorder.EVENT_SETTLE_FRAME, contentAnimator.getLastFrameTimeNanos(), offset);
+                dispatchDrawerSlide(contentAnimator.getLastFrameTimeNanos());
+                onContentSlide(offset);
+                tracer.endSection();
+            }
+
+            @Override
+            public void onSlideEnd(int offset) {
+                tracer.beginSection(SECTION_SETTLE_FRAME);
+                finishSettle(offset, contentAnimator.getLastFrameTimeNanos());
+                tracer.endSection();
+            }
+        });
+        contentAnimator.setFrameStats(frameStats);
+    }
+
+    /**
+     * 内容布局停在offset，结束这次滑动：关闭硬件层，通知子类和所有回调。
+     * 由动画的最后一帧调用，不需要动画时由settleContentTo()直接调用。
+     *
+     * @param frameTimeNanos
+     *            停止的时间
+     */
+    private void finishSettle(int offset, long frameTimeNanos) {
+        setContentOffset(offset);
+        flightRecorder.record(FlightRecorder.EVENT_SETTLED, frameTimeNanos, offset);
+        if (settleFromRelease) {
+            // 两端都使用帧时间，只统计回弹的帧，不受消息分发的抖动影响。在第一帧就结束时为0
+            settleLatency.record(settleStartTimeNanos < 0 ? 0 : frameTimeNanos - settleStartTimeNanos);
+            settleFromRelease = false;
+        }
+        settleStartTimeNanos = -1;
+        layerHelper.demote();
+        dispatchDrawerSlide(frameTimeNanos);
+        onContentSettled(offset);
+        if (offset != settledOffset) {
+            settledOffset = offset;
+            if (settleListener != null) {
+                settleListener.onSettled(offset);
+            }
+        }
+        dispatchDrawerSettled(offset);
+        setDrawerState(STATE_IDLE);
+    }
+
+    /**
+     * 返回指定位置的子View的角色。
+     *
+     * @param index
+     *            子View的位置
+     * @return CHILD_CONTENT、CHILD_LEFT_MENU或CHILD_RIGHT_MENU
+     */
+    protected abstract int getChildRole(int index);
+
+    /**
+     * 滚动动画到达终点时回调。
+     *
+     * @param offset
+     *            内容布局最终的偏移
+     */
+    protected abstract void onContentSettled(int offset);
+
+    /**
+     * 处理侧滑布局跟踪的触摸事件，事件的时间和速度已经记录下来。菜单隐藏时，
+     * 不在边缘区域内按下的手势不会回调，已经回调的手势被判定为纵向滑动后也不再回调。
+     *
+     * @param event
+     *            坐标相对于侧滑布局的触摸事件
+     */
+    protected abstract void onDragEvent(MotionEvent event);
+
+    /**
+     * 滚动动画进行中，每一帧回调一次。
+     *
+     * @param offset
+     *            内容布局当前的偏移
+     */
+    protected void onContentSlide(int offset) {
+    }
+
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            View child = getChildAt(i);
+            if (child instanceof ViewStub && getChildRole(i) != CHILD_CONTENT) {
+                menuInflater.add((ViewStub) child);
+            }
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        menuInflater.schedule();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        menuInflater.cancel();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * 立即inflate还在用ViewStub占位的菜单，并马上重新测量和布局，保证接下来的拖动和动画使用的是菜单真实的宽度。
+     * ViewStub在原来的位置被替换，子View的角色不变。菜单都已经inflate时不做任何事。
+     */
+    public void inflateMenus() {
+        if (menuInflater.inflateNow() && getWidth() > 0) {
+            measure(MeasureSpec.makeMeasureSpec(getWidth(), MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(getHeight(), MeasureSpec.EXACTLY));
+            layout(getLeft(), getTop(), getRight(), getBottom());
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        tracer.beginSection(SECTION_MEASURE);
+        int widthSize = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? screenWidth : MeasureSpec.getSize(widthMeasureSpec);
+        int heightSize = MeasureSpec.getSize(heightMeasureSpec);
+        setMeasuredDimension(widthSize, heightSize);
+
+        // 内容布局总是铺满整个宽度，菜单按照自己的布局参数测量，每个子View只测量一次
+        int contentWidthSpec = MeasureSpec.makeMeasureSpec(
+                widthSize - getPaddingLeft() - getPaddingRight(), MeasureSpec.EXACTLY);
+        minContentOffset = 0;
+        maxContentOffset = 0;
+        // 菜单可能已经被移除或者设为GONE，不能沿用上一次测量的结果
+        hasLeftMenu = false;
+        hasRightMenu = false;
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            View child = getChildAt(i);
+            int role = getChildRole(i);
+            layerHelper.setView(role, child);
+            if (role == CHILD_CONTENT) {
+                contentView = child;
+            }
+            boolean gone = child.getVisibility() == GONE;
+            // 还在用ViewStub占位的菜单会在边缘按下时inflate，边缘区域同样有效
+            if (!gone || child instanceof ViewStub) {
+                if (role == CHILD_LEFT_MENU) {
+                    hasLeftMenu = true;
+                } else if (role == CHILD_RIGHT_MENU) {
+                    hasRightMenu = true;
+                }
+            }
+            if (gone) {
+                continue;
+            }
+            if (role == CHILD_CONTENT) {
+                MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+                int contentHeightSpec = getChildMeasureSpec(heightMeasureSpec,
+                        getPaddingTop() + getPaddingBottom() + lp.topMargin + lp.bottomMargin, lp.height);
+                child.measure(contentWidthSpec, contentHeightSpec);
+            } else {
+                measureChildWithMargins(child, widthMeasureSpec, 0, heightMeasureSpec, 0);
+                if (role == CHILD_LEFT_MENU) {
+                    maxContentOffset = child.getMeasuredWidth();
+                } else {
+                    minContentOffset = -child.getMeasuredWidth();
+                }
+            }
+        }
+        tracer.endSection();
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        tracer.beginSection(SECTION_LAYOUT);
+        int width = r - l;
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            View child = getChildAt(i);
+            if (child.getVisibility() == GONE) {
+                continue;
+            }
+            MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+            int childWidth = child.getMeasuredWidth();
+            int childLeft;
+            switch (getChildRole(i)) {
+                case CHILD_LEFT_MENU:
+                    childLeft = getPaddingLeft() + lp.leftMargin;
+                    break;
+                case CHILD_RIGHT_MENU:
+                    childLeft = width - getPaddingRight() - lp.rightMargin - childWidth;
+                    break;
+                default:
+                    childLeft = getPaddingLeft();
+                    break;
+            }
+            int childTop = getPaddingTop() + lp.topMargin;
+            child.layout(childLeft, childTop, childLeft + childWidth, childTop + child.getMeasuredHeight());
+        }
+        tracer.endSection();
+    }
+
+    @Override
+    protected boolean checkLayoutParams(ViewGroup.LayoutParams p) {
+        return p instanceof MarginLayoutParams;
+    }
+
+    @Override
+    public ViewGroup.LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new MarginLayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected ViewGroup.LayoutParams generateLayoutParams(ViewGroup.LayoutParams p) {
+        return new MarginLayoutParams(p);
+    }
+
+    @Override
+    protected ViewGroup.LayoutParams generateDefaultLayoutParams() {
+        return new MarginLayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                float x = event.getX();
+                dragging = false;
+                // 菜单隐藏并且不在边缘区域内按下时，整个手势都直接交给子View，不做任何额外的处理
+                tracking = contentOffset != 0 || contentAnimator.isRunning() || isInEdgeZone(x);
+                if (!tracking) {
+                    return false;
+                }
+                downX = x;
+                downY = event.getY();
+                // 在越过touchSlop之前准备好菜单
+                inflateMenus();
+                if (contentOffset == 0 && !contentAnimator.isRunning()) {
+                    warmUp(hasLeftMenu && x < edgeSize ? CHILD_LEFT_MENU : CHILD_RIGHT_MENU);
+                }
+                dispatchDragEvent(event);
+                // 接住了正在回弹的内容布局，或者菜单显示时按在内容布局上，直接拦截
+                return dragging || (contentOffset != 0 && isOnContent(x));
+            case MotionEvent.ACTION_MOVE:
+                if (!tracking) {
+                    return false;
+                }
+                if (!dragging && isVerticalGesture(event)) {
+                    stopTracking(event);
+                    return false;
+                }
+                dispatchDragEvent(event);
+                return dragging;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                // 没有被拦截的点击属于子View
+                stopTracking(event);
+                dragging = false;
+                return false;
+            default:
+                if (tracking) {
+                    dispatchDragEvent(event);
+                }
+                return dragging;
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!tracking) {
+            return false;
+        }
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            // 按下事件已经在onInterceptTouchEvent中处理过
+            return true;
+        }
+        if (!dragging && action == MotionEvent.ACTION_MOVE && isVerticalGesture(event)) {
+            stopTracking(event);
+            return false;
+        }
+        dispatchDragEvent(event);
+        return true;
+    }
+
+    /**
+     * 记录事件的时间和速度，再交给子类处理。手势结束时停止跟踪。
+     */
+    private void dispatchDragEvent(MotionEvent event) {
+        recordTouchEvent(event);
+        velocityTracker.addMovement(event);
+        onDragEvent(event);
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            if (!dragging) {
+                discardWarmUp();
+            }
+            tracking = false;
+            dragging = false;
+        }
+    }
+
+    /**
+     * 手势还没有结束，侧滑布局就不再跟踪它。把这个手势的结束事件记录下来，手指抬起以外的情况记为ACTION_CANCEL，
+     * 保证记录下来的每个手势都是完整的，回放时不会停在手势的中间。同时撤销预热。
+     *
+     * @param event
+     *            导致停止跟踪的事件，为null时使用最近一个事件的时间和位置
+     */
+    private void stopTracking(MotionEvent event) {
+        if (!tracking) {
+            return;
+        }
+        tracking = false;
+        if (event == null) {
+            recordTouchEvent(MotionEvent.ACTION_CANCEL, lastPointerId, lastEventTime, lastRawX, lastRawY);
+        } else {
+            int action = event.getActionMasked();
+            recordTouchEvent(action == MotionEvent.ACTION_UP ? action : MotionEvent.ACTION_CANCEL,
+                    event.getPointerId(event.getActionIndex()), event.getEventTime(), event.getRawX(), event.getRawY());
+        }
+        discardWarmUp();
+    }
+
+    /**
+     * 手指在横向移动超过touchSlop之前，纵向已经移动超过touchSlop并且比横向多。
+     */
+    private boolean isVerticalGesture(MotionEvent event) {
+        float dx = Math.abs(event.getX() - downX);
+        float dy = Math.abs(event.getY() - downY);
+        return dy > touchSlop && dy > dx;
+    }
+
+    /**
+     * 在越过touchSlop之前预先显示指定一侧的菜单并开启硬件层。菜单在内容布局下面，
+     * 接下来的一帧会绘制菜单并光栅化硬件层，开始拖动时第一帧只需要合成。
+     * 菜单隐藏时一直是INVISIBLE，已经测量和布局过，切换到VISIBLE不会触发requestLayout。
+     */
+    private void warmUp(int role) {
+        tracer.beginSection(SECTION_WARM_UP);
+        showMenu(role);
+        layerHelper.promote();
+        warmedUp = true;
+        tracer.endSection();
+    }
+
+    /**
+     * 手势没有变成侧滑时撤销warmUp()，重新隐藏菜单并关闭硬件层，不会触发requestLayout。
+     */
+    private void discardWarmUp() {
+        if (!warmedUp) {
+            return;
+        }
+        warmedUp = false;
+        showMenu(CHILD_CONTENT);
+        layerHelper.demote();
+    }
+
+    private boolean isInEdgeZone(float x) {
+        return (hasLeftMenu && x < edgeSize) || (hasRightMenu && x >= getWidth() - edgeSize);
+    }
+
+    private boolean isOnContent(float x) {
+        return contentView != null && x >= contentView.getLeft() + contentOffset
+                && x < contentView.getRight() + contentOffset;
+    }
+
+    @Override
+    public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+        // 纵向的嵌套滚动留给外层的CoordinatorLayout等父布局
+        return (nestedScrollAxes & ViewCompat.SCROLL_AXIS_HORIZONTAL) != 0;
+    }
+
+    @Override
+    public void onNestedScrollAccepted(View child, View target, int nestedScrollAxes) {
+        nestedScrollingHelper.onNestedScrollAccepted(child, target, nestedScrollAxes);
+        nestedVelocity = 0;
+    }
+
+    @Override
+    public void requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        if (disallowIntercept && !dragging) {
+            // 子View已经开始自己滚动，例如纵向滚动的列表，这个手势不再按侧滑处理
+            stopTracking(null);
+        }
+        super.requestDisallowInterceptTouchEvent(disallowIntercept);
+    }
+
+    @Override
+    public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+        // 内容布局被拉开时，反向的横向滚动先把它推回去，再交给子View
+        if (!nestedDragging || dx == 0) {
+            return;
+        }
+        int offset = nestedOffset > 0 ? SlideDecisions.clamp(nestedOffset - dx, 0, maxContentOffset)
+                : SlideDecisions.clamp(nestedOffset - dx, minContentOffset, 0);
+        consumed[0] = nestedOffset - offset;
+        moveNestedDrag(offset);
+    }
+
+    @Override
+    public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+        // 只使用子View滚动到头后剩余的横向距离，纵向距离不做任何处理
+        if (dxUnconsumed == 0) {
+            return;
+        }
+        if (!nestedDragging) {
+            if (contentAnimator.isRunning()) {
+                return;
+            }
+            // 手势已经属于嵌套滚动的子View，不再由onInterceptTouchEvent跟踪
+            stopTracking(null);
+            inflateMenus();
+            nestedDragging = true;
+            nestedOffset = contentOffset;
+            onStartSliding();
+        }
+        moveNestedDrag(SlideDecisions.clamp(nestedOffset - dxUnconsumed, minContentOffset, maxContentOffset));
+    }
+
+    @Override
+    public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+        if (!nestedDragging) {
+            return false;
+        }
+        // 滚动的速度与手指移动的方向相反
+        nestedVelocity = -velocityX;
+        return true;
+    }
+
+    @Override
+    public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+        return false;
+    }
+
+    @Override
+    public void onStopNestedScroll(View target) {
+        nestedScrollingHelper.onStopNestedScroll(target);
+        if (!nestedDragging) {
+            return;
+        }
+        nestedDragging = false;
+        dragging = false;
+        int openOffset = nestedOffset > 0 ? maxContentOffset : minContentOffset;
+        int projected = SlideDecisions.projectOffset(nestedOffset, nestedVelocity, minFlingVelocity, flingDeceleration);
+        settleContentTo(SlideDecisions.settleTarget(projected, 0, openOffset), nestedVelocity, false);
+    }
+
+    @Override
+    public int getNestedScrollAxes() {
+        return nestedScrollingHelper.getNestedScrollAxes();
+    }
+
+    /**
+     * 嵌套滚动拖动内容布局，偏移的方向改变时显示对应一侧的菜单。
+     */
+    private void moveNestedDrag(int offset) {
+        if (offset != 0 && (nestedOffset == 0 || (offset > 0) != (nestedOffset > 0))) {
+            showMenu(offset > 0 ? CHILD_LEFT_MENU : CHILD_RIGHT_MENU);
+        }
+        nestedOffset = offset;
+        dragContentTo(offset);
+    }
+
+    /**
+     * 显示指定一侧的菜单，隐藏另一侧，传入CHILD_CONTENT时隐藏所有菜单。只在VISIBLE和INVISIBLE之间切换，不会触发requestLayout。
+     */
+    private void showMenu(int role) {
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            int childRole = getChildRole(i);
+            View child = getChildAt(i);
+            if (childRole != CHILD_CONTENT && child.getVisibility() != GONE) {
+                child.setVisibility(childRole == role ? VISIBLE : INVISIBLE);
+            }
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        buildEdgeShadow();
+    }
+
+    private void buildEdgeShadow() {
+        edgeShadow = shadowSize > 0 && (shadowColor >>> 24) != 0
+                ? new LinearGradient(0, 0, shadowSize, 0, Color.TRANSPARENT, shadowColor, Shader.TileMode.CLAMP)
+                : null;
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        drawnPixels = 0;
+        super.dispatchDraw(canvas);
+        if (contentOffset != 0 && contentView != null && contentView.getVisibility() == VISIBLE) {
+            drawScrimAndShadow(canvas);
+        }
+    }
+
+    /**
+     * 在内容布局上绘制遮罩，在内容布局靠近菜单的边缘外侧绘制阴影，透明度都与菜单打开的比例成正比。
+     * 每一帧只修改画笔的颜色和shader，不创建任何对象。
+     */
+    private void drawScrimAndShadow(Canvas canvas) {
+        int openOffset = contentOffset > 0 ? maxContentOffset : minContentOffset;
+        if (openOffset == 0) {
+            return;
+        }
+        float fraction = Math.min(1f, (float) contentOffset / openOffset);
+        int contentLeft = contentView.getLeft() + contentOffset;
+        int contentRight = contentView.getRight() + contentOffset;
+        int top = contentView.getTop();
+        int bottom = contentView.getBottom();
+        int scrimAlpha = (int) ((scrimColor >>> 24) * fraction);
+        if (scrimAlpha > 0) {
+            overlayPaint.setShader(null);
+            overlayPaint.setColor(scrimColor);
+            overlayPaint.setAlpha(scrimAlpha);
+            canvas.drawRect(Math.max(contentLeft, 0), top, Math.min(contentRight, getWidth()), bottom, overlayPaint);
+        }
+        if (edgeShadow != null) {
+            overlayPaint.setShader(edgeShadow);
+            overlayPaint.setColor(Color.BLACK);
+            overlayPaint.setAlpha((int) (255 * fraction));
+            int saveCount = canvas.save();
+            if (contentOffset > 0) {
+                canvas.translate(contentLeft - shadowSize, top);
+            } else {
+                // 渐变最深的一端翻转到内容布局的右边缘
+                canvas.translate(contentRight + shadowSize, top);
+                canvas.scale(-1, 1);
+            }
+            canvas.drawRect(0, 0, shadowSize, bottom - top, overlayPaint);
+            canvas.restoreToCount(saveCount);
+        }
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        // 子View在屏幕上的水平范围，只有内容布局会移动
+        int translation = (int) child.getTranslationX();
+        int left = Math.max(child.getLeft() + translation, 0);
+        int right = Math.min(child.getRight() + translation, getWidth());
+        if (occlusionCullingEnabled && child != contentView && !warmedUp && coversVertically(child)) {
+            // 内容布局只会从一侧盖住菜单，减去被盖住的部分。预热期间菜单需要完整地绘制一次，不做裁剪
+            int coverLeft = contentView.getLeft() + contentOffset;
+            int coverRight = contentView.getRight() + contentOffset;
+            if (coverLeft <= left) {
+                left = Math.max(left, coverRight);
+            } else if (coverRight >= right) {
+                right = Math.min(right, coverLeft);
+            }
+        }
+        if (left >= right) {
+            if (occlusionCullingEnabled) {
+                return false;
+            }
+        } else {
+            drawnPixels += (long) (right - left) * child.getHeight();
+        }
+        layerHelper.onDrawChild(child);
+        if (!occlusionCullingEnabled) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
+        int saveCount = canvas.save();
+        canvas.clipRect(left, child.getTop(), right, child.getBottom());
+        boolean more = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(saveCount);
+        return more;
+    }
+
+    /**
+     * 内容布局是否不透明，并且在垂直方向上完全盖住了指定的子View。
+     */
+    private boolean coversVertically(View child) {
+        return contentView != null && contentView.getVisibility() == VISIBLE && contentView.isOpaque()
+                && contentView.getTop() <= child.getTop() && contentView.getBottom() >= child.getBottom();
+    }
+
+    /**
+     * 手指拖动超过touchSlop时调用，为菜单和内容布局开启硬件层。
+     */
+    protected void onStartSliding() {
+        tracer.beginSection(SECTION_DRAG_START);
+        slideStartTimeNanos = lastTouchTimeNanos;
+        flightRecorder.record(FlightRecorder.EVENT_DRAG_START, lastTouchTimeNanos, contentOffset);
+        dragCoalescer.resetCounts();
+        layerHelper.promote();
+        // 预先完成的工作直接用于这次滑动
+        warmedUp = false;
+        dragging = true;
+        setDrawerState(STATE_DRAGGING);
+        ViewParent parent = getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(true);
+        }
+        tracer.endSection();
+    }
+
+    /**
+     * 在ACTION_DOWN时调用。如果滚动动画正在进行，则让内容布局停在最近一帧的位置，
+     * 由手指从这个位置接着拖动，不会出现跳动。硬件层保持开启，直到之后的回弹结束。
+     *
+     * @return 动画正在进行并且已经停下时返回true
+     */
+    protected boolean catchSettle() {
+        if (!contentAnimator.isRunning()) {
+            return false;
+        }
+        contentAnimator.cancel();
+        settleFromRelease = false;
+        settleStartTimeNanos = -1;
+        flightRecorder.record(FlightRecorder.EVENT_DRAG_START, lastTouchTimeNanos, contentOffset);
+        dragCoalescer.resetCounts();
+        dragging = true;
+        setDrawerState(STATE_DRAGGING);
+        return true;
+    }
+
+    /**
+     * 拖动时调用，将内容布局移动到指定的偏移。同一帧内的多次调用只会在下一帧应用最后一次。
+     *
+     * @param offset
+     *            内容布局的水平偏移
+     */
+    protected void dragContentTo(int offset) {
+        if (dragCoalescer.offer(offset)) {
+            choreographer.postFrameCallback(dragFrameCallback);
+        }
+    }
+
+    /**
+     * 立即应用还没有到帧的拖动位置，保证动画从手指最后的位置开始。
+     */
+    private void flushPendingDrag() {
+        if (dragCoalescer.hasPending()) {
+            choreographer.removeFrameCallback(dragFrameCallback);
+            setContentOffset(dragCoalescer.consume());
+        }
+    }
+
+    /**
+     * 记下事件的时间用于统计延迟，设置了记录器时将事件记录下来。
+     */
+    private void recordTouchEvent(MotionEvent event) {
+        recordTouchEvent(event.getActionMasked(), event.getPointerId(event.getActionIndex()),
+                event.getEventTime(), event.getRawX(), event.getRawY());
+    }
+
+    private void recordTouchEvent(int action, int pointerId, long eventTime, float rawX, float rawY) {
+        lastPointerId = pointerId;
+        lastEventTime = eventTime;
+        lastRawX = rawX;
+        lastRawY = rawY;
+        // 事件时间基于uptimeMillis，与System.nanoTime()一样是CLOCK_MONOTONIC
+        lastTouchTimeNanos = eventTime * NANOS_PER_MILLI;
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                flightRecorder.record(FlightRecorder.EVENT_TOUCH_DOWN, lastTouchTimeNanos, (int) rawX);
+                break;
+            case MotionEvent.ACTION_UP:
+                flightRecorder.record(FlightRecorder.EVENT_TOUCH_UP, lastTouchTimeNanos, (int) rawX);
+                releaseTimeNanos = lastTouchTimeNanos;
+                post(clearReleaseTime);
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                flightRecorder.record(FlightRecorder.EVENT_TOUCH_CANCEL, lastTouchTimeNanos, (int) rawX);
+                break;
+            default:
+                break;
+        }
+        if (gestureRecorder != null) {
+            gestureRecorder.append(action, pointerId, eventTime, rawX, rawY);
+        }
+    }
+
+    /**
+     * 获取手指水平滑动的速度。
+     *
+     * @return 滑动速度，以每秒钟移动了多少像素值为单位，带有方向
+     */
+    protected float getVelocity() {
+        float velocity = velocityTracker.getXVelocity();
+        flightRecorder.record(FlightRecorder.EVENT_VELOCITY, lastTouchTimeNanos, (int) velocity);
+        return velocity;
+    }
+
+    /**
+     * 手指抬起时调用，根据松手的位置和速度预测内容布局会滑行到哪里，返回离预测位置较近的一侧。
+     * 阈值都按照屏幕密度换算，在不同的设备上手感一致。
+     *
+     * @param closedOffset
+     *            菜单隐藏时内容布局的偏移
+     * @param openOffset
+     *            菜单完全显示时内容布局的偏移
+     * @return closedOffset或openOffset
+     */
+    protected int computeSettleTarget(int closedOffset, int openOffset) {
+        flushPendingDrag();
+        int projected = SlideDecisions.projectOffset(contentOffset, getVelocity(), minFlingVelocity, flingDeceleration);
+        return SlideDecisions.settleTarget(projected, closedOffset, openOffset);
+    }
+
+    /**
+     * 以动画的方式将内容布局滚动到指定的偏移。动画进行中调用时从当前的位置和速度转向新的终点，
+     * 终点与正在进行的动画相同时不做任何事，连续调用不会让动画重新开始。
+     *
+     * @param offset
+     *            目标偏移
+     */
+    protected void animateContentTo(int offset) {
+        if (contentAnimator.isRunning() && contentAnimator.getFinalOffset() == offset) {
+            return;
+        }
+        settleContentTo(offset, 0, true);
+    }
+
+    /**
+     * 手指抬起后将内容布局滚动到指定的偏移。从松手的速度开始减速，甩得越快停得越快。
+     *
+     * @param offset
+     *            目标偏移
+     */
+    protected void flingContentTo(int offset) {
+        settleContentTo(offset, velocityTracker.getXVelocity(), false);
+    }
+
+    /**
+     * 开始滚动动画。
+     *
+     * @param velocity
+     *            开始时的速度，单位为每秒移动的像素值，带有方向
+     * @param retarget
+     *            为true时保持正在进行的动画的速度，忽略velocity
+     */
+    private void settleContentTo(int offset, float velocity, boolean retarget) {
+        tracer.beginSection(SECTION_SETTLE_START);
+        flushPendingDrag();
+        settleFromRelease = releaseTimeNanos >= 0;
+        settleStartTimeNanos = -1;
+        releaseTimeNanos = -1;
+        long now = System.nanoTime();
+        flightRecorder.record(FlightRecorder.EVENT_SETTLE_START, now, offset);
+        if (offset == contentOffset) {
+            // 松手时已经在终点，或者动画被拖动打断后停在了终点，不需要动画，直接结束这次滑动
+            if (contentAnimator.isRunning()) {
+                contentAnimator.cancel();
+            }
+            finishSettle(offset, now);
+            tracer.endSection();
+            return;
+        }
+        layerHelper.promote();
+        setDrawerState(STATE_SETTLING);
+        if (retarget) {
+            contentAnimator.animateTo(contentOffset, offset);
+        } else {
+            contentAnimator.flingTo(contentOffset, offset, velocity);
+        }
+        tracer.endSection();
+    }
+
+    /**
+     * 在拖动和动画的帧回调中调用，偏移改变时通知菜单的回调。同一帧内的多次调用只有第一次有效。
+     */
+    private void dispatchDrawerSlide(long frameTimeNanos) {
+        DrawerListener[] listeners = drawerListeners;
+        if (listeners.length == 0 || contentOffset == dispatchedSlideOffset
+                || frameTimeNanos == dispatchedSlideFrameNanos) {
+            return;
+        }
+        dispatchedSlideOffset = contentOffset;
+        dispatchedSlideFrameNanos = frameTimeNanos;
+        if (contentOffset != 0) {
+            slideEdge = contentOffset > 0 ? DrawerEngine.EDGE_LEFT : DrawerEngine.EDGE_RIGHT;
+        }
+        int openOffset = slideEdge == DrawerEngine.EDGE_LEFT ? maxContentOffset : minContentOffset;
+        float fraction = openOffset == 0 ? 0 : Math.min(1f, (float) contentOffset / openOffset);
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i].onDrawerSlide(slideEdge, fraction);
+        }
+    }
+
+    /**
+     * 动画停止时判断菜单是否完全显示或者完全隐藏，和上一次停止时不同才回调。
+     */
+    private void dispatchDrawerSettled(int offset) {
+        int edge = DrawerEngine.EDGE_NONE;
+        if (offset != 0 && offset == maxContentOffset) {
+            edge = DrawerEngine.EDGE_LEFT;
+        } else if (offset != 0 && offset == minContentOffset) {
+            edge = DrawerEngine.EDGE_RIGHT;
+        }
+        if (edge == openedEdge) {
+            return;
+        }
+        int closedEdge = openedEdge;
+        openedEdge = edge;
+        DrawerListener[] listeners = drawerListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (closedEdge != DrawerEngine.EDGE_NONE) {
+                listeners[i].onDrawerClosed(closedEdge);
+            }
+            if (edge != DrawerEngine.EDGE_NONE) {
+                listeners[i].onDrawerOpened(edge);
+            }
+        }
+    }
+
+    private void setDrawerState(int state) {
+        if (state == drawerState) {
+            return;
+        }
+        drawerState = state;
+        DrawerListener[] listeners = drawerListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            listeners[i].onDrawerStateChanged(state);
+        }
+    }
+
+    /**
+     * 获取当前的拖动状态。
+     *
+     * @return STATE_IDLE、STATE_DRAGGING或STATE_SETTLING
+     */
+    public int getDrawerState() {
+        return drawerState;
+    }
+
+    /**
+     * 添加菜单的回调，同一个回调不会重复添加。
+     */
+    public void addDrawerListener(DrawerListener listener) {
+        DrawerListener[] listeners = drawerListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                return;
+            }
+        }
+        DrawerListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+        added[listeners.length] = listener;
+        drawerListeners = added;
+    }
+
+    /**
+     * 删除菜单的回调。
+     */
+    public void removeDrawerListener(DrawerListener listener) {
+        DrawerListener[] listeners = drawerListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                DrawerListener[] removed = new DrawerListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, removed, 0, i);
+                System.arraycopy(listeners, i + 1, removed, i, removed.length - i);
+                drawerListeners = removed.length == 0 ? NO_DRAWER_LISTENERS : removed;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 移动内容布局的位置。只修改translationX，不会触发requestLayout。
+     *
+     * @param offset
+     *            内容布局的水平偏移
+     */
+    protected void setContentOffset(int offset) {
+        if (offset != contentOffset && ((scrimColor >>> 24) != 0 || edgeShadow != null)) {
+            // 遮罩和阴影画在布局自己的dispatchDraw中，偏移改变时需要重新记录，子View的硬件层不受影响
+            invalidate();
+        }
+        contentOffset = offset;
+        if (contentView != null) {
+            contentView.setTranslationX(offset);
+        }
+    }
+
+    /**
+     * 获取内容布局当前的水平偏移。
+     */
+    public int getContentOffset() {
+        return contentOffset;
+    }
+
+    /**
+     * 获取内容布局将要停止的偏移。动画进行中返回动画的终点，否则返回当前的偏移。
+     */
+    public int getTargetContentOffset() {
+        return contentAnimator.isRunning() ? contentAnimator.getFinalOffset() : contentOffset;
+    }
+
+    /**
+     * 设置滚动动画停止时的回调，传入null取消回调。
+     */
+    public void setOnSettleListener(OnSettleListener listener) {
+        settleListener = listener;
+    }
+
+    /**
+     * 获取最近一次拖动中实际应用位置的次数，每帧最多一次。
+     */
+    public int getDragApplyCount() {
+        return dragCoalescer.getAppliedCount();
+    }
+
+    /**
+     * 获取最近一次拖动中因为同一帧内有更新的位置而被丢弃的次数。
+     */
+    public int getDragDroppedCount() {
+        return dragCoalescer.getDroppedCount();
+    }
+
+    /**
+     * 设置边缘区域的宽度，菜单隐藏时只有在边缘区域内按下才能滑出菜单，默认为20dp。
+     *
+     * @param edgeSize
+     *            边缘区域的宽度，单位为像素
+     */
+    public void setEdgeSize(int edgeSize) {
+        this.edgeSize = edgeSize;
+    }
+
+    public int getEdgeSize() {
+        return edgeSize;
+    }
+
+    /**
+     * 设置滑动期间是否自动为菜单和内容布局开启硬件层，默认开启。
+     */
+    public void setHardwareLayersEnabled(boolean enabled) {
+        layerHelper.setEnabled(enabled);
+    }
+
+    /**
+     * 设置绘制时是否裁掉被内容布局盖住和移出屏幕的部分，默认开启。
+     */
+    public void setOcclusionCullingEnabled(boolean enabled) {
+        occlusionCullingEnabled = enabled;
+        invalidate();
+    }
+
+    /**
+     * 设置菜单完全打开时内容布局上遮罩的颜色，遮罩的透明度随菜单打开的比例变化，传入0时不绘制遮罩。默认为0。
+     */
+    public void setScrimColor(int color) {
+        scrimColor = color;
+        invalidate();
+    }
+
+    /**
+     * 设置内容布局边缘阴影的颜色和宽度，宽度为0或者颜色完全透明时不绘制阴影。默认不绘制阴影。
+     *
+     * @param color
+     *            阴影最深处的颜色
+     * @param size
+     *            阴影的宽度，单位为像素
+     */
+    public void setEdgeShadow(int color, int size) {
+        shadowColor = color;
+        shadowSize = size;
+        buildEdgeShadow();
+        invalidate();
+    }
+
+    /**
+     * 获取最近一次绘制中被子View重复绘制的像素数，即子View绘制的像素总数超出布局面积的部分。
+     * 菜单被内容布局盖住的部分不再绘制时该值为0。
+     */
+    public long getOverdrawPixels() {
+        return Math.max(0, drawnPixels - (long) getWidth() * getHeight());
+    }
+
+    /**
+     * 获取子View在最近一次滑动中重新光栅化的次数，用于确认硬件层是否被复用。
+     */
+    public int getLayerRasterCount(View child) {
+        return layerHelper.getRasterCount(child);
+    }
+
+    /**
+     * 设置手势记录器，之后侧滑布局跟踪的每个触摸事件都会被记录，传入null停止记录。
+     * 记录的数据可以用GestureTracePlayer回放。
+     */
+    public void setGestureRecorder(GestureTraceWriter recorder) {
+        gestureRecorder = recorder;
+    }
+
+    /**
+     * 获取最近一次滚动动画的帧统计，包括帧数、超过预算的帧数、最长帧间隔和帧间隔的百分位数。
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * 设置滚动动画结束时的帧统计回调。
+     */
+    public void setOnSlideStatsListener(FrameStats.OnSlideFinishedListener listener) {
+        frameStats.setOnSlideFinishedListener(listener);
+    }
+
+    /**
+     * 获取从手指越过touchSlop到内容布局第一次移动的延迟直方图，可以在任意线程读取和清零。
+     */
+    public LatencyHistogram getDragStartLatency() {
+        return dragStartLatency;
+    }
+
+    /**
+     * 获取松手触发的回弹从第一帧到停在边缘的时间直方图，两端都是帧时间，可以在任意线程读取和清零。
+     */
+    public LatencyHistogram getSettleLatency() {
+        return settleLatency;
+    }
+
+    /**
+     * 输出当前状态、最近一次滑动的帧统计、延迟的百分位数和最近的手势事件，
+     * 可以在Activity.dump()中调用，通过adb shell dumpsys activity查看。
+     */
+    public void dump(String prefix, PrintWriter writer) {
+        writer.print(prefix);
+        writer.print(getClass().getSimpleName());
+        writer.print(" contentOffset=");
+        writer.println(contentOffset);
+        writer.print(prefix);
+        writer.print("  lastSlide frames=");
+        writer.print(frameStats.getFrameCount());
+        writer.print(" jank=");
+        writer.print(frameStats.getJankFrameCount());
+        writer.print(" maxIntervalNanos=");
+        writer.print(frameStats.getMaxFrameIntervalNanos());
+        writer.print(" p50/p90/p99Millis=");
+        writer.print(frameStats.getFrameTimePercentileMillis(50));
+        writer.print('/');
+        writer.print(frameStats.getFrameTimePercentileMillis(90));
+        writer.print('/');
+        writer.println(frameStats.getFrameTimePercentileMillis(99));
+        dumpLatency(prefix, writer, "dragStartLatency", dragStartLatency);
+        dumpLatency(prefix, writer, "settleLatency", settleLatency);
+        flightRecorder.dump(writer, prefix + "  ");
+    }
+
+    private static void dumpLatency(String prefix, PrintWriter writer, String name, LatencyHistogram histogram) {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(false);
+        writer.print(prefix);
+        writer.print("  ");
+        writer.print(name);
+        writer.print(" count=");
+        writer.print(snapshot.getCount());
+        writer.print(" p50Nanos=");
+        writer.print(snapshot.getPercentileNanos(50));
+        writer.print(" p99Nanos=");
+        writer.println(snapshot.getPercentileNanos(99));
+    }
+
+    /**
+     * 设置拖动、回弹、测量、布局和菜单inflate的trace区间写到哪里。传入Tracer.NONE关闭，测试中可以传入RecordingTracer。
+     */
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer == null ? Tracer.NONE : tracer;
+        menuInflater.setTracer(this.tracer);
+    }
+}
@@ -0,0 +1,123 @@
+package com.huangzhiwei.slidemenu;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.Choreographer;
+import android.view.ViewStub;
+
+import com.huangzhiwei.slidecore.Tracer;
+
+/**
+ * 延迟inflate菜单。菜单在布局文件中以ViewStub占位，第一帧之后主线程第一次空闲时才inflate，
+ * 不占用启动时setContentView和第一帧的时间。需要立即使用菜单时，例如手指按下或者代码打开菜单，
+ * 调用inflateNow()提前完成。必须在UI线程中使用。
+ */
+public class DeferredInflater {
+
+    /**
+     * trace区间的名称。
+     */
+    public static final String SECTION_INFLATE = "SlideMenu:inflateMenus";
+
+    /**
+     * 最多管理的ViewStub个数，左右两个菜单已经足够。
+     */
+    private static final int MAX_STUBS = 4;
+
+    private final ViewStub[] stubs = new ViewStub[MAX_STUBS];
+
+    /**
+     * 还没有inflate的ViewStub个数。
+     */
+    private int count;
+
+    private boolean scheduled;
+
+    private Tracer tracer = Tracer.NONE;
+
+    private final MessageQueue.IdleHandler idleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            scheduled = false;
+            inflateNow();
+            return false;
+        }
+    };
+
+    /**
+     * 第一帧开始时注册空闲回调，这样它会在这一帧绘制完成之后才执行。
+     */
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            Looper.myQueue().addIdleHandler(idleHandler);
+        }
+    };
+
+    /**
+     * 添加一个需要延迟inflate的ViewStub。
+     */
+    public void add(ViewStub stub) {
+        if (count < MAX_STUBS) {
+            stubs[count++] = stub;
+        }
+    }
+
+    /**
+     * 在下一帧之后的第一次空闲时inflate，没有需要inflate的ViewStub时不做任何事。
+     */
+    public void schedule() {
+        if (count == 0 || scheduled) {
+            return;
+        }
+        scheduled = true;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
+
+    /**
+     * 取消还没有执行的延迟inflate，在View从窗口移除时调用。
+     */
+    public void cancel() {
+        if (scheduled) {
+            scheduled = false;
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+            Looper.myQueue().removeIdleHandler(idleHandler);
+        }
+    }
+
+    /**
+     * 立即inflate所有还没有inflate的ViewStub。已经被其他途径inflate的ViewStub会被跳过。
+     *
+     * @return 这次调用是否inflate了菜单
+     */
+    public boolean inflateNow() {
+        if (count == 0) {
+            return false;
+        }
+        cancel();
+        tracer.beginSection(SECTION_INFLATE);
+        boolean inflated = false;
+        for (int i = 0; i < count; i++) {
+            // inflate之后ViewStub会从父布局中移除
+            if (stubs[i].getParent() != null) {
+                stubs[i].inflate();
+                inflated = true;
+            }
+            stubs[i] = null;
+        }
+        count = 0;
+        tracer.endSection();
+        return inflated;
+    }
+
+    public boolean isPending() {
+        return count > 0;
+    }
+
+    /**
+     * 设置inflate的trace区间写入的位置。
+     */
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+}
@@ -0,0 +1,138 @@
+package com.huangzhiwei.slidemenu;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.huangzhiwei.slidecore.GestureTraceReader;
+
+/**
+ * 将记录下来的手势按原来的节奏重新分发给目标View，可以加速回放。
+ * 回放的事件只有一个手指，ACTION_POINTER_DOWN和ACTION_POINTER_UP会转换成ACTION_MOVE。
+ * 记录的是屏幕坐标，回放时按目标View当前在屏幕上的位置换算成View内的坐标，getRawX()和记录时相同。
+ * 加速回放时事件时间同样被压缩，计算出的速度会相应变大。
+ */
+public class GestureTracePlayer {
+
+    private final View target;
+
+    private final Handler handler = new Handler();
+
+    private final MotionEvent.PointerProperties[] pointerProperties = { new MotionEvent.PointerProperties() };
+
+    private final MotionEvent.PointerCoords[] pointerCoords = { new MotionEvent.PointerCoords() };
+
+    private final int[] location = new int[2];
+
+    private GestureTraceReader reader;
+
+    /**
+     * 读取器中是否有一个还没有分发的事件。
+     */
+    private boolean hasEvent;
+
+    private float speed;
+
+    /**
+     * 记录中第一个事件的时间。
+     */
+    private long traceStartTime;
+
+    /**
+     * 开始回放的时间。
+     */
+    private long playStartTime;
+
+    private long downTime;
+
+    private final Runnable dispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatchDueEvents();
+        }
+    };
+
+    /**
+     * @param target
+     *            接收事件的View，通常是侧滑布局本身
+     */
+    public GestureTracePlayer(View target) {
+        this.target = target;
+    }
+
+    /**
+     * 开始回放，之前的回放会被停止。
+     *
+     * @param trace
+     *            GestureTraceWriter记录的数据
+     * @param length
+     *            有效数据的长度
+     * @param speed
+     *            回放速度，1为原速，2为两倍速
+     */
+    public void play(byte[] trace, int length, float speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("speed must be positive: " + speed);
+        }
+        stop();
+        reader = new GestureTraceReader(trace, length);
+        this.speed = speed;
+        hasEvent = reader.next();
+        traceStartTime = reader.getEventTime();
+        playStartTime = SystemClock.uptimeMillis();
+        downTime = playStartTime;
+        dispatchDueEvents();
+    }
+
+    /**
+     * 停止回放，还没有分发的事件会被丢弃。
+     */
+    public void stop() {
+        handler.removeCallbacks(dispatchRunnable);
+        hasEvent = false;
+        reader = null;
+    }
+
+    public boolean isPlaying() {
+        return hasEvent;
+    }
+
+    private void dispatchDueEvents() {
+        long now = SystemClock.uptimeMillis();
+        while (hasEvent) {
+            long eventTime = playStartTime + (long) ((reader.getEventTime() - traceStartTime) / speed);
+            if (eventTime > now) {
+                handler.postAtTime(dispatchRunnable, eventTime);
+                return;
+            }
+            dispatch(eventTime);
+            hasEvent = reader.next();
+        }
+        reader = null;
+    }
+
+    private void dispatch(long eventTime) {
+        int action = reader.getAction();
+        if (action == MotionEvent.ACTION_POINTER_DOWN || action == MotionEvent.ACTION_POINTER_UP) {
+            action = MotionEvent.ACTION_MOVE;
+        }
+        if (action == MotionEvent.ACTION_DOWN) {
+            downTime = eventTime;
+        }
+        pointerProperties[0].id = reader.getPointerId();
+        pointerProperties[0].toolType = MotionEvent.TOOL_TYPE_FINGER;
+        pointerCoords[0].x = reader.getRawX();
+        pointerCoords[0].y = reader.getRawY();
+        pointerCoords[0].pressure = 1;
+        pointerCoords[0].size = 1;
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, 1, pointerProperties, pointerCoords,
+                0, 0, 1, 1, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+        // 屏幕坐标换算成View内的坐标，getRawX()和getRawY()不受影响
+        target.getLocationOnScreen(location);
+        event.offsetLocation(-location[0], -location[1]);
+        target.dispatchTouchEvent(event);
+        event.recycle();
+    }
+}
@@ -0,0 +1,126 @@
+package com.huangzhiwei.slidemenu;
+
+import android.view.View;
+
+/**
+ * 滑动期间为移动的子View开启硬件层，滑动结束后关闭。
+ * 滑动时子View只改变位置，开启硬件层后每一帧只需要合成，不需要重新绘制子View的内容。
+ */
+public class HardwareLayerHelper {
+
+    /**
+     * 需要管理硬件层的子View。
+     */
+    private final View[] views;
+
+    /**
+     * 每个子View在本次滑动中重新光栅化的次数。
+     */
+    private final int[] rasterCounts;
+
+    /**
+     * 开启硬件层之前每个子View的层类型，关闭时恢复。
+     */
+    private final int[] previousLayerTypes;
+
+    /**
+     * 是否启用自动硬件层。
+     */
+    private boolean enabled = true;
+
+    /**
+     * 当前是否已经开启了硬件层。
+     */
+    private boolean promoted;
+
+    public HardwareLayerHelper(int capacity) {
+        views = new View[capacity];
+        rasterCounts = new int[capacity];
+        previousLayerTypes = new int[capacity];
+    }
+
+    /**
+     * 设置需要管理的子View。
+     */
+    public void setView(int index, View view) {
+        views[index] = view;
+    }
+
+    /**
+     * 设置是否启用自动硬件层，默认启用。关闭时如果已经开启了硬件层会立即恢复。
+     */
+    public void setEnabled(boolean enabled) {
+        if (!enabled) {
+            demote();
+        }
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 滑动开始时调用，为子View开启硬件层，并清空重新光栅化的计数。
+     */
+    public void promote() {
+        if (!enabled || promoted) {
+            return;
+        }
+        promoted = true;
+        for (int i = 0; i < views.length; i++) {
+            View view = views[i];
+            rasterCounts[i] = 0;
+            if (view == null) {
+                continue;
+            }
+            previousLayerTypes[i] = view.getLayerType();
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            if (view.getVisibility() == View.VISIBLE && view.getWidth() > 0 && view.isHardwareAccelerated()) {
+                view.buildLayer();
+            }
+        }
+    }
+
+    /**
+     * 滑动结束时调用，恢复子View原来的层类型。
+     */
+    public void demote() {
+        if (!promoted) {
+            return;
+        }
+        promoted = false;
+        for (int i = 0; i < views.length; i++) {
+            if (views[i] != null) {
+                views[i].setLayerType(previousLayerTypes[i], null);
+            }
+        }
+    }
+
+    /**
+     * 在父布局的drawChild中调用。子View在开启硬件层期间被标记为dirty，说明它的层需要重新光栅化。
+     */
+    public void onDrawChild(View child) {
+        if (!promoted || !child.isDirty()) {
+            return;
+        }
+        for (int i = 0; i < views.length; i++) {
+            if (views[i] == child) {
+                rasterCounts[i]++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 获取子View在最近一次滑动中重新光栅化的次数，硬件层被正常复用时该值应该保持为0或1。
+     */
+    public int getRasterCount(View child) {
+        for (int i = 0; i < views.length; i++) {
+            if (views[i] == child) {
+                return rasterCounts[i];
+            }
+        }
+        return 0;
+    }
+}
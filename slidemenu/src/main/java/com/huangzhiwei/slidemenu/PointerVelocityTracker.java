@@ -0,0 +1,81 @@
+package com.huangzhiwei.slidemenu;
+
+import android.view.MotionEvent;
+
+import com.huangzhiwei.slidecore.VelocityEstimator;
+
+/**
+ * 将MotionEvent转换成VelocityEstimator的采样。只跟踪一个手指，会读取事件中批量的历史采样，
+ * 并处理ACTION_CANCEL和多指切换。整个生命周期内复用，不需要obtain和recycle。
+ */
+public class PointerVelocityTracker {
+
+    private static final int INVALID_POINTER = -1;
+
+    private final VelocityEstimator estimator = new VelocityEstimator();
+
+    /**
+     * 当前跟踪的手指。
+     */
+    private int activePointerId = INVALID_POINTER;
+
+    /**
+     * 将触摸事件加入到速度计算当中。
+     *
+     * @param event
+     *            触摸事件
+     */
+    public void addMovement(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                estimator.clear();
+                activePointerId = event.getPointerId(0);
+                break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                // 新按下的手指接管滑动，之前手指的采样不再有效
+                estimator.clear();
+                activePointerId = event.getPointerId(event.getActionIndex());
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                int actionIndex = event.getActionIndex();
+                if (event.getPointerId(actionIndex) == activePointerId) {
+                    estimator.clear();
+                    activePointerId = event.getPointerId(actionIndex == 0 ? 1 : 0);
+                }
+                return;
+            case MotionEvent.ACTION_CANCEL:
+                clear();
+                return;
+            default:
+                break;
+        }
+        int pointerIndex = event.findPointerIndex(activePointerId);
+        if (pointerIndex < 0) {
+            return;
+        }
+        // 使用屏幕坐标，避免所在的View移动时影响速度
+        float rawOffset = event.getRawX() - event.getX();
+        int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            estimator.addSample(event.getHistoricalEventTime(i), event.getHistoricalX(pointerIndex, i) + rawOffset);
+        }
+        estimator.addSample(event.getEventTime(), event.getX(pointerIndex) + rawOffset);
+    }
+
+    /**
+     * 获取水平方向的速度。
+     *
+     * @return 速度，以每秒钟移动了多少像素值为单位，带有方向
+     */
+    public float getXVelocity() {
+        return estimator.computeVelocity();
+    }
+
+    /**
+     * 清空所有采样。
+     */
+    public void clear() {
+        estimator.clear();
+        activePointerId = INVALID_POINTER;
+    }
+}
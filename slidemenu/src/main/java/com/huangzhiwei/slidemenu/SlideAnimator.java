@@ -0,0 +1,160 @@
+package com.huangzhiwei.slidemenu;
+
+import android.view.Choreographer;
+
+import com.huangzhiwei.slidecore.FrameStats;
+import com.huangzhiwei.slidecore.SettleAnimation;
+
+/**
+ * 由Choreographer驱动的滑动动画。每一帧在UI线程中只回调一次位置更新，
+ * 位置根据帧时间计算，与屏幕刷新率无关。必须在UI线程中创建和使用。
+ */
+public class SlideAnimator implements Choreographer.FrameCallback {
+
+    /**
+     * 滑动动画的回调接口。
+     */
+    public interface OnSlideListener {
+
+        /**
+         * 动画进行中，每一帧回调一次。
+         *
+         * @param offset
+         *            当前帧的位置
+         */
+        void onSlideUpdate(int offset);
+
+        /**
+         * 动画到达终点时回调。
+         *
+         * @param offset
+         *            最终的位置
+         */
+        void onSlideEnd(int offset);
+    }
+
+    private final Choreographer choreographer;
+
+    private final SettleAnimation animation = new SettleAnimation();
+
+    private final OnSlideListener listener;
+
+    /**
+     * 是否已经注册了下一帧的回调。
+     */
+    private boolean running;
+
+    /**
+     * 统计每次滑动的帧间隔，为null时不统计。
+     */
+    private FrameStats frameStats;
+
+    /**
+     * 最近一帧的时间。
+     */
+    private long lastFrameTimeNanos;
+
+    public SlideAnimator(OnSlideListener listener) {
+        this.choreographer = Choreographer.getInstance();
+        this.listener = listener;
+    }
+
+    /**
+     * 从from滑动到to。动画进行中调用时不会排队，而是从当前的位置和速度转向新的终点，
+     * 终点与正在进行的动画相同时不做任何事。因此连续调用时，最多只需要一次完整滑动的时间就能到达最后的终点。
+     */
+    public void animateTo(int from, int to) {
+        if (running && to == animation.getFinalOffset()) {
+            return;
+        }
+        long now = System.nanoTime();
+        float velocity = running ? animation.getCurrentVelocity(now) : 0;
+        animation.startFling(from, to, velocity, now);
+        run();
+    }
+
+    /**
+     * 从from以velocity开始匀减速滑动到to，速度越快用时越短。如果动画正在进行，则直接从新的起点重新开始。
+     *
+     * @param velocity
+     *            松手时的速度，单位为每秒移动的像素值，带有方向
+     */
+    public void flingTo(int from, int to, float velocity) {
+        animation.startFling(from, to, velocity, System.nanoTime());
+        run();
+    }
+
+    private void run() {
+        if (!running) {
+            // 中途转向仍然算作同一次滑动
+            if (frameStats != null) {
+                frameStats.beginSlide();
+            }
+            running = true;
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    /**
+     * 停止动画，位置停留在最近一帧。
+     */
+    public void cancel() {
+        if (running) {
+            choreographer.removeFrameCallback(this);
+            running = false;
+            if (frameStats != null) {
+                frameStats.endSlide();
+            }
+        }
+        animation.abortAnimation();
+    }
+
+    /**
+     * 设置帧间隔统计，动画的每一帧都会记录到其中。
+     */
+    public void setFrameStats(FrameStats frameStats) {
+        this.frameStats = frameStats;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getCurrentOffset() {
+        return animation.getCurrentOffset();
+    }
+
+    /**
+     * 获取动画的终点，动画结束后即为停止的位置。
+     */
+    public int getFinalOffset() {
+        return animation.getFinalOffset();
+    }
+
+    /**
+     * 获取最近一帧的Choreographer帧时间，在回调中调用时即为当前帧的时间。
+     */
+    public long getLastFrameTimeNanos() {
+        return lastFrameTimeNanos;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        lastFrameTimeNanos = frameTimeNanos;
+        int offset = animation.computeOffset(frameTimeNanos);
+        if (frameStats != null) {
+            frameStats.onFrame(frameTimeNanos);
+        }
+        if (animation.isFinished()) {
+            running = false;
+            // 先结束这次滑动的统计，回调中开始的新动画会重新开始统计
+            if (frameStats != null) {
+                frameStats.endSlide();
+            }
+            listener.onSlideEnd(offset);
+        } else {
+            listener.onSlideUpdate(offset);
+            choreographer.postFrameCallback(this);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.huangzhiwei.slidemenu.testing;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.view.Display;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 在JVM上回放手势，并模拟屏幕刷新。每一帧先推进主线程的时钟，执行到期的Choreographer回调，
+ * 然后像ViewRootImpl一样，只在有布局请求时测量和布局，只在有重绘请求时绘制。
+ */
+public class GestureReplayer {
+
+    /**
+     * 每一帧的间隔，单位为毫秒。
+     */
+    public static final int FRAME_MILLIS = 16;
+
+    /**
+     * 等待动画结束时最多模拟的帧数。
+     */
+    private static final int MAX_SETTLE_FRAMES = 300;
+
+    private final PassCountingLayout root;
+
+    private final Canvas canvas;
+
+    private final int width;
+
+    private final int height;
+
+    private int frameCount;
+
+    private GestureReplayer(PassCountingLayout root, int width, int height) {
+        this.root = root;
+        this.width = width;
+        this.height = height;
+        canvas = new Canvas(Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888));
+    }
+
+    /**
+     * 将PassCountingLayout插入到Activity的根布局之上，完成第一次测量、布局和绘制，并清零计数。
+     * 延迟inflate的菜单在第一帧之后的空闲时inflate，这里在第一次测量之前直接inflate，模拟用户开始操作之前的状态。
+     */
+    public static GestureReplayer install(Activity activity) {
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MILLIS);
+        ViewGroup contentParent = (ViewGroup) activity.findViewById(android.R.id.content);
+        View layout = contentParent.getChildAt(0);
+        InflateCounter.inflateStubs(layout);
+        contentParent.removeView(layout);
+        PassCountingLayout root = new PassCountingLayout(activity);
+        root.addView(layout);
+        contentParent.addView(root);
+        Display display = activity.getWindowManager().getDefaultDisplay();
+        GestureReplayer replayer = new GestureReplayer(root, display.getWidth(), display.getHeight());
+        replayer.performTraversal(true);
+        replayer.settle();
+        replayer.reset();
+        return replayer;
+    }
+
+    /**
+     * 模拟一帧。
+     */
+    public void frame() {
+        ShadowLooper.idleMainLooper(FRAME_MILLIS);
+        frameCount++;
+        performTraversal(false);
+    }
+
+    private void performTraversal(boolean force) {
+        if (force || root.isLayoutRequested()) {
+            root.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+            root.layout(0, 0, width, height);
+        }
+        if (force || root.isInvalidated()) {
+            root.draw(canvas);
+        }
+    }
+
+    /**
+     * 一直模拟到某一帧既不需要布局也不需要绘制为止，即动画已经结束。
+     */
+    public void settle() {
+        for (int i = 0; i < MAX_SETTLE_FRAMES; i++) {
+            int passes = root.getLayoutCount() + root.getDrawCount();
+            frame();
+            if (root.getLayoutCount() + root.getDrawCount() == passes) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 在target上水平拖动，每次移动之后模拟一帧，松手后等待动画结束。
+     *
+     * @param steps
+     *            ACTION_MOVE的个数
+     * @param cancel
+     *            是否以ACTION_CANCEL结束，否则以ACTION_UP结束
+     */
+    public void drag(View target, float fromX, float toX, int steps, boolean cancel) {
+        drag(target, fromX, toX, steps, 1, cancel);
+    }
+
+    /**
+     * 在target上水平拖动，每一帧之间分发多个ACTION_MOVE，模拟触摸采样率高于屏幕刷新率的设备。
+     *
+     * @param steps
+     *            ACTION_MOVE的个数
+     * @param movesPerFrame
+     *            两帧之间的ACTION_MOVE个数
+     * @param cancel
+     *            是否以ACTION_CANCEL结束，否则以ACTION_UP结束
+     */
+    public void drag(View target, float fromX, float toX, int steps, int movesPerFrame, boolean cancel) {
+        long downTime = SystemClock.uptimeMillis();
+        dispatch(target, downTime, MotionEvent.ACTION_DOWN, fromX);
+        frame();
+        for (int i = 1; i <= steps; i++) {
+            dispatch(target, downTime, MotionEvent.ACTION_MOVE, fromX + (toX - fromX) * i / steps);
+            if (i % movesPerFrame == 0 || i == steps) {
+                frame();
+            }
+        }
+        dispatch(target, downTime, cancel ? MotionEvent.ACTION_CANCEL : MotionEvent.ACTION_UP, toX);
+        settle();
+    }
+
+    /**
+     * 在target上点击一下，松手后等待动画结束。
+     */
+    public void tap(View target, float x) {
+        long downTime = SystemClock.uptimeMillis();
+        dispatch(target, downTime, MotionEvent.ACTION_DOWN, x);
+        frame();
+        dispatch(target, downTime, MotionEvent.ACTION_UP, x);
+        settle();
+    }
+
+    /**
+     * 向target分发一个触摸事件，不模拟帧，用于拼出drag()和tap()以外的手势。
+     *
+     * @param downTime
+     *            手势中ACTION_DOWN的时间
+     */
+    public void dispatch(View target, long downTime, int action, float x) {
+        dispatch(target, downTime, action, x, height / 2);
+    }
+
+    /**
+     * 向target分发一个指定纵坐标的触摸事件，用于纵向的手势。
+     */
+    public void dispatch(View target, long downTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, y, 0);
+        target.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * 清零计数，在每个需要统计的手势之前调用。
+     */
+    public void reset() {
+        root.resetCounts();
+        frameCount = 0;
+    }
+
+    /**
+     * 断言上一次reset之后的计数没有超过预算。
+     */
+    public void assertWithinBudget(String gesture, int maxRequestLayouts, int maxMeasures, int maxLayouts,
+                                   int maxDraws) {
+        String counts = gesture + ": requestLayout=" + root.getRequestLayoutCount()
+                + " measure=" + root.getMeasureCount()
+                + " layout=" + root.getLayoutCount()
+                + " draw=" + root.getDrawCount()
+                + " frames=" + frameCount;
+        assertTrue(counts, root.getRequestLayoutCount() <= maxRequestLayouts);
+        assertTrue(counts, root.getMeasureCount() <= maxMeasures);
+        assertTrue(counts, root.getLayoutCount() <= maxLayouts);
+        assertTrue(counts, root.getDrawCount() <= maxDraws);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 获取上一次reset之后的绘制次数。
+     */
+    public int getDrawCount() {
+        return root.getDrawCount();
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+}
@@ -0,0 +1,77 @@
+package com.huangzhiwei.slidemenu.testing;
+
+import android.app.Activity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewStub;
+import android.widget.FrameLayout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 统计冷启动时inflate出来的View个数。与计时不同，个数不受JIT、GC和机器负载影响，
+ * 菜单是否被延迟可以确定地判断出来。
+ */
+public final class InflateCounter {
+
+    private InflateCounter() {
+    }
+
+    /**
+     * 检查第一帧之前菜单还没有inflate：菜单的id都找不到，
+     * Activity中的View个数与不inflate ViewStub时的布局文件相同，并且少于立即inflate所有ViewStub时的个数。
+     *
+     * @param activity
+     *            已经完成setupActivity，还没有绘制第一帧的Activity
+     * @param layoutId
+     *            Activity的布局文件
+     * @param menuIds
+     *            被延迟inflate的菜单的id
+     */
+    public static void assertMenusDeferred(Activity activity, int layoutId, int... menuIds) {
+        for (int id : menuIds) {
+            assertNull(activity.findViewById(id));
+        }
+        ViewGroup contentParent = (ViewGroup) activity.findViewById(android.R.id.content);
+        int inflated = countViews(contentParent.getChildAt(0));
+        LayoutInflater inflater = LayoutInflater.from(activity);
+        ViewGroup parent = new FrameLayout(activity);
+        int deferred = countViews(inflater.inflate(layoutId, parent, false));
+        View root = inflater.inflate(layoutId, parent, false);
+        inflateStubs(root);
+        int eager = countViews(root);
+        assertEquals(deferred, inflated);
+        assertTrue(inflated < eager);
+    }
+
+    /**
+     * 统计View树中View的个数，ViewStub也算作一个。
+     */
+    public static int countViews(View view) {
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                count += countViews(group.getChildAt(i));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * inflate布局中所有的ViewStub。被inflate出来的布局在ViewStub原来的位置替换，不影响遍历的顺序。
+     */
+    static void inflateStubs(View view) {
+        if (view instanceof ViewStub) {
+            ((ViewStub) view).inflate();
+        } else if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                inflateStubs(group.getChildAt(i));
+            }
+        }
+    }
+}
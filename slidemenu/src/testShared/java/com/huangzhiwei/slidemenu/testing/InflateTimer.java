@@ -0,0 +1,102 @@
+package com.huangzhiwei.slidemenu.testing;
+
+import android.app.Activity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 测量冷启动时inflate布局文件花费的时间，即延迟inflate菜单为setContentView节省的时间。
+ * 使用当前线程的CPU时间，不受Robolectric模拟的时钟影响。两种方式交替测量多次并各取最小值，减少JIT、GC和机器负载带来的波动。
+ * 结果追加写入build/reports/coldStartInflate.txt，不输出到控制台。
+ */
+public final class InflateTimer {
+
+    /**
+     * 测量结果写入的文件，相对于模块的目录。
+     */
+    private static final String REPORT_PATH = "build/reports/coldStartInflate.txt";
+
+    /**
+     * 正式测量之前的预热次数。
+     */
+    private static final int WARMUP = 10;
+
+    /**
+     * 延迟inflate允许比立即inflate多花的比例。计时仍然有波动，这里只防止延迟inflate明显变慢，
+     * 菜单是否被延迟由InflateCounter确定地检查。
+     */
+    private static final float MARGIN = 0.25f;
+
+    private final LayoutInflater inflater;
+
+    private final ViewGroup parent;
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private long eagerNanos = Long.MAX_VALUE;
+
+    private long deferredNanos = Long.MAX_VALUE;
+
+    public InflateTimer(Activity activity) {
+        inflater = LayoutInflater.from(activity);
+        parent = new FrameLayout(activity);
+    }
+
+    /**
+     * 交替测量布局中的ViewStub保持原样和全部立即inflate两种情况，写入报告，
+     * 并断言延迟inflate没有超出立即inflate的时间加上余量。
+     *
+     * @param name
+     *            写入报告的名称
+     * @param layoutId
+     *            Activity的布局文件
+     * @param iterations
+     *            每种情况测量的次数
+     */
+    public void measureAndReport(String name, int layoutId, int iterations) throws IOException {
+        for (int i = -WARMUP; i < iterations; i++) {
+            long deferred = measure(layoutId, false);
+            long eager = measure(layoutId, true);
+            if (i >= 0) {
+                deferredNanos = Math.min(deferredNanos, deferred);
+                eagerNanos = Math.min(eagerNanos, eager);
+            }
+        }
+        String result = name + " eager=" + eagerNanos + "ns deferred=" + deferredNanos
+                + "ns saved=" + (eagerNanos - deferredNanos) + "ns";
+        report(result);
+        assertTrue(result, deferredNanos <= eagerNanos + (long) (eagerNanos * MARGIN));
+    }
+
+    private long measure(int layoutId, boolean inflateStubs) {
+        long start = threadBean.getCurrentThreadCpuTime();
+        View root = inflater.inflate(layoutId, parent, false);
+        if (inflateStubs) {
+            InflateCounter.inflateStubs(root);
+        }
+        return threadBean.getCurrentThreadCpuTime() - start;
+    }
+
+    private static void report(String line) throws IOException {
+        File file = new File(REPORT_PATH);
+        file.getParentFile().mkdirs();
+        Writer writer = new FileWriter(file, true);
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } finally {
+            writer.close();
+        }
+    }
+}
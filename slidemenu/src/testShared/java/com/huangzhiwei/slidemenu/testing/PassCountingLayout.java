@@ -0,0 +1,92 @@
+package com.huangzhiwei.slidemenu.testing;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.ViewParent;
+import android.widget.FrameLayout;
+
+/**
+ * 插入在Activity根布局之上，统计整棵View树的requestLayout、测量、布局和绘制次数。
+ * 子View的requestLayout和invalidate都会向上传递到这里。
+ */
+public class PassCountingLayout extends FrameLayout {
+
+    private int requestLayoutCount;
+
+    private int measureCount;
+
+    private int layoutCount;
+
+    private int drawCount;
+
+    /**
+     * 上一次绘制之后是否有子View请求过重绘。
+     */
+    private boolean invalidated;
+
+    public PassCountingLayout(Context context) {
+        super(context);
+    }
+
+    @Override
+    public void requestLayout() {
+        requestLayoutCount++;
+        super.requestLayout();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        measureCount++;
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        layoutCount++;
+        super.onLayout(changed, left, top, right, bottom);
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        drawCount++;
+        invalidated = false;
+        super.dispatchDraw(canvas);
+    }
+
+    @Override
+    public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+        invalidated = true;
+        return super.invalidateChildInParent(location, dirty);
+    }
+
+    public boolean isInvalidated() {
+        return invalidated;
+    }
+
+    /**
+     * 清零所有计数，在每个手势开始之前调用。
+     */
+    public void resetCounts() {
+        requestLayoutCount = 0;
+        measureCount = 0;
+        layoutCount = 0;
+        drawCount = 0;
+    }
+
+    public int getRequestLayoutCount() {
+        return requestLayoutCount;
+    }
+
+    public int getMeasureCount() {
+        return measureCount;
+    }
+
+    public int getLayoutCount() {
+        return layoutCount;
+    }
+
+    public int getDrawCount() {
+        return drawCount;
+    }
+}
@@ -0,0 +1,62 @@
+package com.huangzhiwei.myapplication;
+
+import android.os.AsyncTask;
+import android.os.SystemClock;
+import android.test.ActivityInstrumentationTestCase2;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 验证侧滑动画不再排队在AsyncTask的串行线程池中。
+ */
+public class SlideAnimationExecutorTest extends ActivityInstrumentationTestCase2<MainActivity> {
+
+    /**
+     * 打开menu允许的最长时间，远小于后台任务阻塞的时间。
+     */
+    private static final long OPEN_TIMEOUT_MILLIS = 2000;
+
+    private final CountDownLatch releaseBackgroundTask = new CountDownLatch(1);
+
+    public SlideAnimationExecutorTest() {
+        super(MainActivity.class);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        releaseBackgroundTask.countDown();
+        super.tearDown();
+    }
+
+    public void testLongRunningAsyncTaskDoesNotDelayMenuOpen() throws Exception {
+        final SlideLayout slidingLayout = (SlideLayout) getActivity().findViewById(R.id.slidingLayout);
+
+        // 占住进程内共享的串行线程池，模拟应用自己的网络或数据库任务
+        new AsyncTask<Void, Void, Void>() {
+            @Override
+            protected Void doInBackground(Void... params) {
+                try {
+                    releaseBackgroundTask.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // 线程池的线程被中断时恢复中断状态，交给线程池处理
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        }.execute();
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                slidingLayout.scrollToMenu();
+            }
+        });
+
+        long deadline = SystemClock.uptimeMillis() + OPEN_TIMEOUT_MILLIS;
+        while (!slidingLayout.isMenuVisible() && SystemClock.uptimeMillis() < deadline) {
+            SystemClock.sleep(16);
+        }
+        assertTrue("menu should open while the serial executor is busy", slidingLayout.isMenuVisible());
+    }
+}
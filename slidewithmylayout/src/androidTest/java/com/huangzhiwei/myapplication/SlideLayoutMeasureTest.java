@@ -0,0 +1,105 @@
+package com.huangzhiwei.myapplication;
+
+import android.content.Context;
+import android.test.AndroidTestCase;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.RelativeLayout;
+
+/**
+ * 对比SlideLayout和RelativeLayout在深层级内容布局下的测量次数。
+ */
+public class SlideLayoutMeasureTest extends AndroidTestCase {
+
+    /**
+     * 内容布局的嵌套层数。
+     */
+    private static final int CONTENT_DEPTH = 10;
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    public void testEachChildIsMeasuredOncePerPass() throws Exception {
+        CountingView leaf = new CountingView(getContext());
+        SlideLayout slideLayout = new SlideLayout(getContext(), null);
+        slideLayout.addView(new View(getContext()), new ViewGroup.MarginLayoutParams(810, ViewGroup.LayoutParams.MATCH_PARENT));
+        slideLayout.addView(buildDeepContent(leaf), new ViewGroup.MarginLayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        measure(slideLayout);
+        assertEquals(1, leaf.measureCount);
+    }
+
+    public void testMeasuresLessThanRelativeLayout() throws Exception {
+        CountingView slideLeaf = new CountingView(getContext());
+        SlideLayout slideLayout = new SlideLayout(getContext(), null);
+        slideLayout.addView(new View(getContext()), new ViewGroup.MarginLayoutParams(810, ViewGroup.LayoutParams.MATCH_PARENT));
+        slideLayout.addView(buildDeepContent(slideLeaf), new ViewGroup.MarginLayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        CountingView relativeLeaf = new CountingView(getContext());
+        RelativeLayout relativeLayout = new RelativeLayout(getContext());
+        relativeLayout.addView(new View(getContext()), new RelativeLayout.LayoutParams(810, ViewGroup.LayoutParams.MATCH_PARENT));
+        relativeLayout.addView(buildDeepContent(relativeLeaf), new RelativeLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        for (int i = 0; i < 5; i++) {
+            measure(slideLayout);
+            measure(relativeLayout);
+        }
+        assertEquals(5, slideLeaf.measureCount);
+        assertTrue("RelativeLayout measured " + relativeLeaf.measureCount + " times",
+                relativeLeaf.measureCount > slideLeaf.measureCount);
+    }
+
+    /**
+     * 模拟一次完整的测量，强制整棵树都重新测量。
+     */
+    private void measure(ViewGroup root) {
+        forceLayoutTree(root);
+        root.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        root.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private void forceLayoutTree(View view) {
+        view.forceLayout();
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                forceLayoutTree(group.getChildAt(i));
+            }
+        }
+    }
+
+    private View buildDeepContent(View leaf) {
+        View child = leaf;
+        for (int i = 0; i < CONTENT_DEPTH; i++) {
+            LinearLayout parent = new LinearLayout(getContext());
+            parent.addView(child, new LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            child = parent;
+        }
+        return child;
+    }
+
+    /**
+     * 记录onMeasure调用次数的View。
+     */
+    private static class CountingView extends View {
+
+        int measureCount;
+
+        CountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+    }
+}
@@ -9,6 +9,9 @@ import android.widget.Button;
 import android.widget.ListView;
 import android.widget.Toast;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
 public class MainActivity extends Activity {
 
     /**
@@ -50,16 +53,11 @@ public class MainActivity extends Activity {
         contentListAdapter = new ArrayAdapter<String>(this, android.R.layout.simple_list_item_1,
                 contentItems);
         contentListView.setAdapter(contentListAdapter);
-        slidingLayout.setScrollEvent(contentListView);
 
         menuButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                if (slidingLayout.isMenuVisible()) {
-                    slidingLayout.scrollToContent();
-                } else {
-                    slidingLayout.scrollToMenu();
-                }
+                slidingLayout.toggleMenu();
             }
         });
 
@@ -71,4 +69,10 @@ public class MainActivity extends Activity {
             }
         });
     }
+
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        slidingLayout.dump(prefix, writer);
+    }
 }
@@ -1,27 +1,17 @@
 package com.huangzhiwei.myapplication;
 
 import android.content.Context;
-import android.os.AsyncTask;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
 import android.view.View;
-import android.view.ViewConfiguration;
-import android.view.WindowManager;
-import android.widget.RelativeLayout;
+
+import com.huangzhiwei.slidecore.SlideDecisions;
+import com.huangzhiwei.slidemenu.BaseSlideLayout;
 
 /**
  * Created by huangzhiwei on 16/2/26.
  */
-public class SlideLayout extends RelativeLayout implements View.OnTouchListener {
-
-    private final String TAG = "MainActivity";
-
-    /**
-     * 滚动显示和隐藏menu时，手指滑动需要达到的速度。
-     */
-    public static final int SNAP_VELOCITY = 200;
+public class SlideLayout extends BaseSlideLayout {
 
     /**
      * 左侧menu视图
@@ -29,41 +19,21 @@ public class SlideLayout extends RelativeLayout implements View.OnTouchListener
     private View menu;
 
     /**
-     * 右侧content视图
-     */
-    private View content;
-
-    /**
-     * menu布局的参数，通过此参数来更改leftMargin的值。
-     */
-    private MarginLayoutParams menuParams;
-
-    /**
-     * content布局的参数，
-     */
-    private MarginLayoutParams contentParams;
-
-    /**
-     * 在被判定为滚动之前用户手指可以移动的最大值。
-     */
-    private int touchSlop;
-
-    /**
-     * menu最多可以滑动到的左边缘。值由menu布局的宽度来定，marginLeft到达此值之后，不能再减少。
+     * content最多可以滑动到的左边缘。值恒为0，即content完全覆盖menu。
      */
     private int leftEdge = 0;
 
     /**
-     * menu最多可以滑动到的右边缘。值恒为0，即marginLeft到达0之后，不能增加。
+     * content最多可以滑动到的右边缘。值由menu布局的宽度来定，content平移到此值时menu完全显示。
      */
     private int rightEdge = 0;
 
-    /**
-     * 屏幕宽度
-     */
-    private int screenWidth;
 
 
+    /**
+     * 手指按下时content的偏移，拖动以此为起点。
+     */
+    private int dragStartOffset;
 
     /**
      * 记录手指按下时的横坐标。
@@ -104,14 +74,9 @@ public class SlideLayout extends RelativeLayout implements View.OnTouchListener
     private boolean isSliding;
 
     /**
-     * 用于计算手指滑动的速度。
+     * 第一次布局之前调用了scrollToMenu()，还不知道menu的宽度，布局完成后再滚动。
      */
-    private VelocityTracker mVelocityTracker;
-
-    /**
-     * 用于监听侧滑事件的View。
-     */
-    private View mBindView;
+    private boolean pendingOpen;
 
     /**
      * 重写SlidingLayout的构造函数，其中获取了屏幕的宽度。
@@ -121,52 +86,49 @@ public class SlideLayout extends RelativeLayout implements View.OnTouchListener
      */
     public SlideLayout(Context context, AttributeSet attrs) {
         super(context, attrs);
-        WindowManager wm = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
-        screenWidth = wm.getDefaultDisplay().getWidth();
-        touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
     }
 
-    /**
-     * 绑定监听侧滑事件的View，即在绑定的View进行滑动才可以显示和隐藏左侧布局。
-     *
-     * @param bindView
-     *            需要绑定的View对象。
-     */
-    public void setScrollEvent(View bindView)
-    {
-        mBindView = bindView;
-        mBindView.setOnTouchListener(this);
+    @Override
+    protected int getChildRole(int index) {
+        return index == 0 ? CHILD_LEFT_MENU : CHILD_CONTENT;
+    }
+
+    @Override
+    protected void onContentSettled(int offset) {
+        isMenuVisible = offset == rightEdge;
+        isSliding = false;
     }
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         super.onLayout(changed, l, t, r, b);
-        if (changed)
+        menu = getChildAt(0);
+        rightEdge = menu.getMeasuredWidth();
+        if(pendingOpen)
         {
-            menu = getChildAt(0);
-            menuParams = (MarginLayoutParams)menu.getLayoutParams();
-            rightEdge = -menuParams.width;
-
-            content = getChildAt(1);
-            contentParams = (MarginLayoutParams) content.getLayoutParams();
-            contentParams.width = screenWidth;
-            content.setLayoutParams(contentParams);
+            pendingOpen = false;
+            scrollToMenu();
         }
     }
 
 
     @Override
-    public boolean onTouch(View v, MotionEvent event) {
+    protected void onDragEvent(MotionEvent event) {
         if(menu.getVisibility() != View.VISIBLE)
         {
             menu.setVisibility(View.VISIBLE);
         }
-        createVelocityTracker(event);
-        switch (event.getAction())
+        switch (event.getActionMasked())
         {
             case MotionEvent.ACTION_DOWN:
                 xDown = event.getRawX();
                 yDown = event.getRawY();
+                // 动画进行中按下时接住content，从当前位置继续拖动
+                if(catchSettle())
+                {
+                    isSliding = true;
+                }
+                dragStartOffset = getContentOffset();
                 break;
             case MotionEvent.ACTION_MOVE:
                 xMove = event.getRawX();
@@ -174,26 +136,15 @@ public class SlideLayout extends RelativeLayout implements View.OnTouchListener
                 //移动的逻辑
                 int moveDistanceX = (int) (xMove - xDown);
                 int moveDistancY = (int) (yMove - yDown);
-                if(!isMenuVisible && moveDistanceX >= touchSlop
-                        &&(isSliding || moveDistancY <= touchSlop))
+                if(isSliding)
                 {
-                    isSliding = true;
-                    contentParams.rightMargin = -moveDistanceX;
-                    if(contentParams.rightMargin > leftEdge)
-                    {
-                        contentParams.rightMargin = leftEdge;
-                    }
-                    content.setLayoutParams(contentParams);
+                    dragContentTo(checkContentBorder(dragStartOffset + moveDistanceX));
                 }
-                if(isMenuVisible && Math.abs(moveDistanceX)>touchSlop)
+                else if((!isMenuVisible && moveDistanceX >= touchSlop && moveDistancY <= touchSlop)
+                        || (isMenuVisible && Math.abs(moveDistanceX) > touchSlop))
                 {
-                    isSliding = true;
-                    contentParams.rightMargin = rightEdge - moveDistanceX;
-                    if(contentParams.rightMargin < rightEdge)
-                    {
-                        contentParams.rightMargin = rightEdge;
-                    }
-                    content.setLayoutParams(contentParams);
+                    startSliding();
+                    dragContentTo(checkContentBorder(dragStartOffset + moveDistanceX));
                 }
 
                 break;
@@ -203,179 +154,100 @@ public class SlideLayout extends RelativeLayout implements View.OnTouchListener
 //                抬起后的逻辑
                 if(isSliding)
                 {
-                    if(wantScrollToContent())
-                    {
-                        if(shouldScrollToContent())
-                        {
-                            scrollToContent();
-                        }
-                        else
-                        {
-                            scrollToMenu();
-                        }
-                    }
-                    else if(wantScrollToMenu())
-                    {
-                        if(shouldScrollToMenu())
-                        {
-                            scrollToMenu();
-                        }
-                        else
-                        {
-                            scrollToContent();
-                        }
-                    }
+                    // 根据松手的速度预测停止的位置，停在离它较近的一侧
+                    flingContentTo(computeSettleTarget(leftEdge, rightEdge));
                 }
                 else if(upDistanceX < touchSlop && isMenuVisible)
                 {
                     scrollToContent();
                 }
-                destroyVelocity();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                // 手势被取消时回到滑动之前的状态
+                if(isSliding)
+                {
+                    if(isMenuVisible)
+                    {
+                        scrollToMenu();
+                    }
+                    else
+                    {
+                        scrollToContent();
+                    }
+                }
                 break;
             default:
                 break;
-
-        }
-
-        if (v.isEnabled()) {
-            if (isSliding) {
-                unFocusBindView();
-                return true;
-            }
-            if (isMenuVisible) {
-                return true;
-            }
-            return false;
         }
-        return true;
-    }
-
-    public void scrollToMenu() {
-        new ScrollTask().execute(-30);
     }
 
-    public void scrollToContent() {
-        new ScrollTask().execute(30);
-    }
-
-
-    private boolean shouldScrollToMenu() {
-        return getVelocity()>SNAP_VELOCITY || xUp - xDown > screenWidth/2;
-    }
-
-    private boolean shouldScrollToContent() {
-        return getVelocity()>SNAP_VELOCITY || xDown - xUp > screenWidth/2;
-    }
-
-    private boolean wantScrollToMenu() {
-        return xUp-xDown>0 && !isMenuVisible;
-    }
-
-    private boolean wantScrollToContent() {
-        return xUp-xDown<0 && isMenuVisible;
-    }
-
-    /**
-     * 左侧布局是否完全显示出来，或完全隐藏，滑动过程中此值无效。
-     *
-     * @return 左侧布局完全显示返回true，完全隐藏返回false。
-     */
-    public boolean isMenuVisible() {
-        return isMenuVisible;
-    }
     /**
-     * 创建VelocityTracker对象，并将触摸content界面的滑动事件加入到VelocityTracker当中。
-     *
-     * @param motionEvent
-     *            content界面的滑动事件
+     * 手指滑动超过touchSlop时调用一次，进入滑动状态。
      */
-    private void createVelocityTracker(MotionEvent motionEvent)
+    private void startSliding()
     {
-        if(mVelocityTracker==null)
+        if(!isSliding)
         {
-            mVelocityTracker = VelocityTracker.obtain();
+            isSliding = true;
+            onStartSliding();
         }
-        mVelocityTracker.addMovement(motionEvent);
     }
 
-    private int getVelocity()
-    {
-        mVelocityTracker.computeCurrentVelocity(1000);
-        return Math.abs((int) mVelocityTracker.getXVelocity());
+    /**
+     * 将content滚动到右侧，展示出menu。
+     */
+    public void scrollToMenu() {
+        // menu可能还没有inflate，先确定它的宽度
+        inflateMenus();
+        if(menu == null)
+        {
+            // 还没有完成第一次布局，例如在onCreate中调用，布局之后再滚动
+            pendingOpen = true;
+            return;
+        }
+        if(menu.getVisibility() != View.VISIBLE)
+        {
+            menu.setVisibility(View.VISIBLE);
+        }
+        animateContentTo(rightEdge);
     }
 
-    private void destroyVelocity()
-    {
-        mVelocityTracker.recycle();
-        mVelocityTracker = null;
+    /**
+     * 将content滚动回原位，隐藏menu。
+     */
+    public void scrollToContent() {
+        pendingOpen = false;
+        animateContentTo(leftEdge);
     }
 
     /**
-     * 使用可以获得焦点的控件在滑动的时候失去焦点。
+     * 显示或隐藏menu。动画进行中调用时以动画的终点为准，连续点击会让content从当前位置掉头，而不是排队执行。
      */
-    private void unFocusBindView()
-    {
-        if(mBindView!=null)
+    public void toggleMenu() {
+        if(pendingOpen || (menu != null && getTargetContentOffset() == rightEdge))
+        {
+            scrollToContent();
+        }
+        else
         {
-            mBindView.setPressed(false);
-            mBindView.setFocusable(false);
-            mBindView.setFocusableInTouchMode(false);
+            scrollToMenu();
         }
     }
 
-    class ScrollTask extends AsyncTask<Integer,Integer,Integer>
+    /**
+     * 检查content的边界值，防止content滑出leftEdge和rightEdge的范围。
+     */
+    private int checkContentBorder(int offset)
     {
+        return SlideDecisions.clamp(offset, leftEdge, rightEdge);
+    }
 
-        @Override
-        protected Integer doInBackground(Integer... params) {
-            int rightMargin = contentParams.rightMargin;
-            int speed = params[0];
-            while(true)
-            {
-                Log.d(TAG,rightMargin+" ");
-                rightMargin += speed;
-                if(rightMargin>leftEdge)
-                {
-                    rightMargin = leftEdge;
-                    break;
-                }
-                else if(rightMargin<rightEdge)
-                {
-                    rightMargin = rightEdge;
-                    break;
-                }
-                publishProgress(rightMargin);
-                try {
-                    Thread.sleep(20);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-
-            if(speed>0)
-            {
-                isMenuVisible = false;
-            }
-            else
-            {
-                isMenuVisible = true;
-            }
-            isSliding = false;
-            return rightMargin;
-        }
-
-        @Override
-        protected void onProgressUpdate(Integer... values) {
-            contentParams.rightMargin = values[0];
-//            Log.d(TAG,menuParams.leftMargin+" ");
-            content.setLayoutParams(contentParams);
-
-        }
-
-        @Override
-        protected void onPostExecute(Integer integer) {
-            contentParams.rightMargin = integer;
-            content.setLayoutParams(contentParams);
-        }
+    /**
+     * 左侧布局是否完全显示出来，或完全隐藏，滑动过程中此值无效。
+     *
+     * @return 左侧布局完全显示返回true，完全隐藏返回false。
+     */
+    public boolean isMenuVisible() {
+        return isMenuVisible;
     }
 }
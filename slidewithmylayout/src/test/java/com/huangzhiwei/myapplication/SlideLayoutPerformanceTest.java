@@ -0,0 +1,428 @@
+package com.huangzhiwei.myapplication;
+
+import android.os.SystemClock;
+import android.support.v4.view.ViewCompat;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.huangzhiwei.slidecore.DrawerEngine;
+import com.huangzhiwei.slidecore.GestureTraceReader;
+import com.huangzhiwei.slidecore.GestureTraceWriter;
+import com.huangzhiwei.slidemenu.BaseSlideLayout;
+import com.huangzhiwei.slidemenu.GestureTracePlayer;
+import com.huangzhiwei.slidemenu.testing.GestureReplayer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 回放手势并统计每个手势触发的布局和绘制次数，超过预算时失败。
+ * 滑动只修改translationX，所以拖动和回弹都不应该触发requestLayout、测量和布局。
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SlideLayoutPerformanceTest {
+
+    private static final int DRAG_STEPS = 20;
+
+    private static final int FLING_STEPS = 4;
+
+    private static final int TOGGLE_CLICKS = 5;
+
+    /**
+     * 高采样率的触摸屏在两帧之间产生的ACTION_MOVE个数。
+     */
+    private static final int MOVES_PER_FRAME = 4;
+
+    /**
+     * 等待回放结束时最多模拟的帧数。
+     */
+    private static final int MAX_PLAY_FRAMES = 300;
+
+    /**
+     * 按1.5像素每毫秒回弹整个menu所需的帧数，再留出余量。
+     */
+    private static final int SETTLE_DRAWS = 16;
+
+    /**
+     * 手指按下的那一帧。
+     */
+    private static final int DOWN_DRAWS = 1;
+
+    private GestureReplayer replayer;
+
+    private SlideLayout slidingLayout;
+
+    private View menuButton;
+
+    private int width;
+
+    @Before
+    public void setUp() throws Exception {
+        MainActivity activity = Robolectric.setupActivity(MainActivity.class);
+        replayer = GestureReplayer.install(activity);
+        slidingLayout = (SlideLayout) activity.findViewById(R.id.slidingLayout);
+        menuButton = activity.findViewById(R.id.menuButton);
+        width = replayer.getWidth();
+    }
+
+    private void openMenuAndReset() {
+        replayer.drag(slidingLayout, 10, width - 10, DRAG_STEPS, false);
+        assertTrue(slidingLayout.isMenuVisible());
+        replayer.reset();
+    }
+
+    @Test
+    public void openMenu() throws Exception {
+        replayer.drag(slidingLayout, 10, width - 10, DRAG_STEPS, false);
+        assertTrue(slidingLayout.isMenuVisible());
+        replayer.assertWithinBudget("open", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void severalMovesPerFrameApplyOnce() throws Exception {
+        replayer.drag(slidingLayout, 10, width - 10, DRAG_STEPS * MOVES_PER_FRAME, MOVES_PER_FRAME, false);
+        assertTrue(slidingLayout.isMenuVisible());
+        // 同一帧内只有最后一个位置被应用，其余的被丢弃
+        assertTrue(slidingLayout.getDragApplyCount() <= replayer.getFrameCount());
+        assertTrue(slidingLayout.getDragDroppedCount() > 0);
+        replayer.assertWithinBudget("coalesced", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void closeMenu() throws Exception {
+        openMenuAndReset();
+        replayer.drag(slidingLayout, width - 10, 10, DRAG_STEPS, false);
+        assertFalse(slidingLayout.isMenuVisible());
+        replayer.assertWithinBudget("close", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void cancelledDrag() throws Exception {
+        replayer.drag(slidingLayout, 10, width / 2, DRAG_STEPS, true);
+        assertFalse(slidingLayout.isMenuVisible());
+        assertEquals(0, slidingLayout.getContentOffset());
+        replayer.assertWithinBudget("cancel", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void fling() throws Exception {
+        replayer.drag(slidingLayout, 10, 130, FLING_STEPS, false);
+        assertTrue(slidingLayout.isMenuVisible());
+        replayer.assertWithinBudget("fling", 0, 0, 0, DOWN_DRAWS + FLING_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void tapToClose() throws Exception {
+        openMenuAndReset();
+        replayer.tap(slidingLayout, width - 10);
+        assertFalse(slidingLayout.isMenuVisible());
+        replayer.assertWithinBudget("tap", 0, 0, 0, DOWN_DRAWS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void rapidToggle() throws Exception {
+        final int[] settled = new int[2];
+        slidingLayout.setOnSettleListener(new BaseSlideLayout.OnSettleListener() {
+            @Override
+            public void onSettled(int offset) {
+                settled[0]++;
+                settled[1] = offset;
+            }
+        });
+        // 每帧点击一次，动画在当前位置掉头而不是排队
+        int previous = slidingLayout.getContentOffset();
+        for (int i = 0; i < TOGGLE_CLICKS; i++) {
+            int current = slidingLayout.getContentOffset();
+            menuButton.performClick();
+            replayer.frame();
+            int next = slidingLayout.getContentOffset();
+            // 掉头后的第一帧仍然沿原来的方向移动，速度没有突变
+            assertTrue("click " + i, (next - current) * (current - previous) >= 0);
+            previous = current;
+        }
+        replayer.settle();
+        assertTrue(slidingLayout.isMenuVisible());
+        assertEquals(1, settled[0]);
+        assertEquals(slidingLayout.getContentOffset(), settled[1]);
+        replayer.assertWithinBudget("toggle", 0, 0, 0, TOGGLE_CLICKS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void catchDuringSettle() throws Exception {
+        menuButton.performClick();
+        replayer.frame();
+        replayer.frame();
+        replayer.frame();
+        int caught = slidingLayout.getContentOffset();
+        assertTrue(caught > 0);
+        // 按下时停在当前帧的位置，之后从这里接着拖动
+        long downTime = SystemClock.uptimeMillis();
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_DOWN, 100);
+        replayer.frame();
+        assertEquals(caught, slidingLayout.getContentOffset());
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_MOVE, 90);
+        replayer.frame();
+        assertEquals(caught - 10, slidingLayout.getContentOffset());
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_UP, 90);
+        replayer.settle();
+        int offset = slidingLayout.getContentOffset();
+        assertTrue(offset == 0 || slidingLayout.isMenuVisible());
+    }
+
+    @Test
+    public void dragOutsideEdgeZoneIsIgnored() throws Exception {
+        // 菜单隐藏时，不在边缘区域内按下的手势留给内容布局中的子View
+        replayer.drag(slidingLayout, slidingLayout.getEdgeSize() * 2, width - 10, DRAG_STEPS, false);
+        assertFalse(slidingLayout.isMenuVisible());
+        assertEquals(0, slidingLayout.getContentOffset());
+        assertEquals(0, slidingLayout.getDragApplyCount());
+    }
+
+    @Test
+    public void goneMenuReleasesEdge() throws Exception {
+        slidingLayout.getChildAt(0).setVisibility(View.GONE);
+        replayer.frame();
+        replayer.reset();
+        // 重新测量之后左边缘不再属于菜单，手势交给content
+        replayer.drag(slidingLayout, 10, width - 10, DRAG_STEPS, false);
+        assertEquals(0, slidingLayout.getContentOffset());
+        assertEquals(0, slidingLayout.getDragApplyCount());
+        assertFalse(slidingLayout.isMenuVisible());
+    }
+
+    @Test
+    public void nestedHorizontalScrollDragsMenu() throws Exception {
+        View content = slidingLayout.getChildAt(1);
+        assertTrue(slidingLayout.onStartNestedScroll(content, content, ViewCompat.SCROLL_AXIS_HORIZONTAL));
+        slidingLayout.onNestedScrollAccepted(content, content, ViewCompat.SCROLL_AXIS_HORIZONTAL);
+        // 子View已经滚动到头，剩余的横向距离拉出menu
+        for (int i = 0; i < DRAG_STEPS; i++) {
+            slidingLayout.onNestedScroll(content, 0, 0, -width / DRAG_STEPS, 0);
+            replayer.frame();
+        }
+        assertTrue(slidingLayout.getContentOffset() > 0);
+        slidingLayout.onStopNestedScroll(content);
+        replayer.settle();
+        assertTrue(slidingLayout.isMenuVisible());
+        replayer.assertWithinBudget("nested", 0, 0, 0, DRAG_STEPS + SETTLE_DRAWS);
+    }
+
+    @Test
+    public void nestedVerticalScrollIsIgnored() throws Exception {
+        View content = slidingLayout.getChildAt(1);
+        // 不接受纵向的嵌套滚动，让它继续传给外层的父布局
+        assertFalse(slidingLayout.onStartNestedScroll(content, content, ViewCompat.SCROLL_AXIS_VERTICAL));
+
+        // 子View开始纵向滚动时会请求不拦截，边缘按下的手势随之放弃
+        long downTime = SystemClock.uptimeMillis();
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_DOWN, 10);
+        replayer.frame();
+        content.getParent().requestDisallowInterceptTouchEvent(true);
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_MOVE, width - 10);
+        replayer.frame();
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_UP, width - 10);
+        replayer.settle();
+        assertEquals(0, slidingLayout.getContentOffset());
+        assertEquals(0, slidingLayout.getDragApplyCount());
+    }
+
+    @Test
+    public void edgeDownWarmsUpMenu() throws Exception {
+        View menu = slidingLayout.getChildAt(0);
+        long downTime = SystemClock.uptimeMillis();
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_DOWN, 10);
+        replayer.frame();
+        // 越过touchSlop之前菜单已经显示在内容布局下面，并且开启了硬件层
+        assertEquals(View.VISIBLE, menu.getVisibility());
+        assertEquals(View.LAYER_TYPE_HARDWARE, menu.getLayerType());
+        assertEquals(0, slidingLayout.getContentOffset());
+        replayer.assertWithinBudget("warmUp", 0, 0, 0, DOWN_DRAWS);
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_UP, 10);
+        replayer.settle();
+        // 没有滑动就抬起，撤销预先做的工作
+        assertEquals(View.INVISIBLE, menu.getVisibility());
+        assertEquals(View.LAYER_TYPE_NONE, menu.getLayerType());
+    }
+
+    @Test
+    public void verticalGestureDiscardsWarmUp() throws Exception {
+        View menu = slidingLayout.getChildAt(0);
+        int y = replayer.getHeight() / 2;
+        long downTime = SystemClock.uptimeMillis();
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_DOWN, 10, y);
+        replayer.frame();
+        for (int i = 1; i <= DRAG_STEPS; i++) {
+            replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_MOVE, 10 + i, y + i * 10);
+            replayer.frame();
+        }
+        assertEquals(View.INVISIBLE, menu.getVisibility());
+        assertEquals(View.LAYER_TYPE_NONE, menu.getLayerType());
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_UP, 10 + DRAG_STEPS, y + DRAG_STEPS * 10);
+        replayer.settle();
+        assertEquals(0, slidingLayout.getContentOffset());
+        assertEquals(0, slidingLayout.getDragApplyCount());
+        // 撤销只切换可见性和层类型，不会重新测量和布局，绘制次数包括列表自己的滚动
+        replayer.assertWithinBudget("vertical", 0, 0, 0, DOWN_DRAWS + DRAG_STEPS);
+    }
+
+    @Test
+    public void droppedGestureRecordsCancel() throws Exception {
+        GestureTraceWriter writer = new GestureTraceWriter();
+        slidingLayout.setGestureRecorder(writer);
+        int y = replayer.getHeight() / 2;
+        long downTime = SystemClock.uptimeMillis();
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_DOWN, 10, y);
+        replayer.frame();
+        for (int i = 1; i <= DRAG_STEPS; i++) {
+            replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_MOVE, 10 + i, y + i * 10);
+            replayer.frame();
+        }
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_UP, 10 + DRAG_STEPS, y + DRAG_STEPS * 10);
+        replayer.settle();
+        // 纵向手势在不再跟踪时补记ACTION_CANCEL，之后的事件不属于侧滑布局
+        GestureTraceReader reader = new GestureTraceReader(writer.getBuffer(), writer.getLength());
+        int last = -1;
+        while (reader.next()) {
+            last = reader.getAction();
+        }
+        assertEquals(MotionEvent.ACTION_CANCEL, last);
+    }
+
+    @Test
+    public void edgeTapRecordsUp() throws Exception {
+        GestureTraceWriter writer = new GestureTraceWriter();
+        slidingLayout.setGestureRecorder(writer);
+        int y = replayer.getHeight() / 2;
+        long downTime = SystemClock.uptimeMillis();
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_DOWN, 10, y);
+        replayer.frame();
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_UP, 10, y);
+        replayer.settle();
+        GestureTraceReader reader = new GestureTraceReader(writer.getBuffer(), writer.getLength());
+        assertTrue(reader.next());
+        assertEquals(MotionEvent.ACTION_DOWN, reader.getAction());
+        assertTrue(reader.next());
+        assertEquals(MotionEvent.ACTION_UP, reader.getAction());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void drawerListenerOncePerFrame() throws Exception {
+        final int[] counts = new int[3];
+        final float[] lastFraction = new float[1];
+        final StringBuilder states = new StringBuilder();
+        slidingLayout.addDrawerListener(new BaseSlideLayout.DrawerListener() {
+            @Override
+            public void onDrawerSlide(int edge, float slideOffset) {
+                assertEquals(DrawerEngine.EDGE_LEFT, edge);
+                counts[0]++;
+                lastFraction[0] = slideOffset;
+            }
+
+            @Override
+            public void onDrawerOpened(int edge) {
+                counts[1]++;
+            }
+
+            @Override
+            public void onDrawerClosed(int edge) {
+                counts[2]++;
+            }
+
+            @Override
+            public void onDrawerStateChanged(int newState) {
+                states.append(newState);
+            }
+        });
+        // 在菜单完全显示之前松手，由动画完成剩下的部分
+        int menuWidth = slidingLayout.getChildAt(0).getWidth();
+        replayer.drag(slidingLayout, 10, 10 + menuWidth * 3 / 4, DRAG_STEPS, false);
+        assertTrue(slidingLayout.isMenuVisible());
+        // 每一帧最多回调一次位置
+        assertTrue(counts[0] > 0 && counts[0] <= replayer.getFrameCount());
+        assertEquals(1f, lastFraction[0], 0);
+        assertEquals(1, counts[1]);
+        assertEquals(0, counts[2]);
+        assertEquals("" + BaseSlideLayout.STATE_DRAGGING + BaseSlideLayout.STATE_SETTLING
+                + BaseSlideLayout.STATE_IDLE, states.toString());
+        assertEquals(BaseSlideLayout.STATE_IDLE, slidingLayout.getDrawerState());
+
+        menuButton.performClick();
+        replayer.settle();
+        assertEquals(0f, lastFraction[0], 0);
+        assertEquals(1, counts[2]);
+    }
+
+    @Test
+    public void releaseAtOpenEdgeSettlesImmediately() throws Exception {
+        final int[] opened = new int[1];
+        final StringBuilder states = new StringBuilder();
+        slidingLayout.addDrawerListener(new BaseSlideLayout.DrawerListener() {
+            @Override
+            public void onDrawerSlide(int edge, float slideOffset) {
+            }
+
+            @Override
+            public void onDrawerOpened(int edge) {
+                assertEquals(DrawerEngine.EDGE_LEFT, edge);
+                opened[0]++;
+            }
+
+            @Override
+            public void onDrawerClosed(int edge) {
+            }
+
+            @Override
+            public void onDrawerStateChanged(int newState) {
+                states.append(newState);
+            }
+        });
+        long downTime = SystemClock.uptimeMillis();
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_DOWN, 10);
+        replayer.frame();
+        for (int i = 1; i <= DRAG_STEPS; i++) {
+            replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_MOVE, 10 + (width - 20) * i / DRAG_STEPS);
+            replayer.frame();
+        }
+        // 超出菜单宽度的部分被限制住，松手时已经停在完全显示的位置，不需要等下一帧
+        replayer.dispatch(slidingLayout, downTime, MotionEvent.ACTION_UP, width - 10);
+        assertTrue(slidingLayout.isMenuVisible());
+        assertEquals(1, opened[0]);
+        assertEquals(BaseSlideLayout.STATE_IDLE, slidingLayout.getDrawerState());
+        assertEquals("" + BaseSlideLayout.STATE_DRAGGING + BaseSlideLayout.STATE_IDLE, states.toString());
+        replayer.settle();
+        assertEquals(1, opened[0]);
+    }
+
+    @Test
+    public void recordedGestureReplaysToSameOffset() throws Exception {
+        GestureTraceWriter writer = new GestureTraceWriter();
+        slidingLayout.setGestureRecorder(writer);
+        // 在菜单完全显示之前松手，停止的位置取决于回放的坐标和速度
+        int menuWidth = slidingLayout.getChildAt(0).getWidth();
+        replayer.drag(slidingLayout, 10, 10 + menuWidth * 3 / 4, DRAG_STEPS, false);
+        slidingLayout.setGestureRecorder(null);
+        int recordedOffset = slidingLayout.getContentOffset();
+        assertTrue(slidingLayout.isMenuVisible());
+
+        menuButton.performClick();
+        replayer.settle();
+        assertEquals(0, slidingLayout.getContentOffset());
+
+        GestureTracePlayer player = new GestureTracePlayer(slidingLayout);
+        player.play(writer.getBuffer(), writer.getLength(), 1);
+        for (int i = 0; i < MAX_PLAY_FRAMES && player.isPlaying(); i++) {
+            replayer.frame();
+        }
+        assertFalse(player.isPlaying());
+        replayer.settle();
+        assertEquals(recordedOffset, slidingLayout.getContentOffset());
+    }
+}
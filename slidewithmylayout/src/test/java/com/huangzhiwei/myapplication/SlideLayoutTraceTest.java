@@ -0,0 +1,72 @@
+package com.huangzhiwei.myapplication;
+
+import com.huangzhiwei.slidecore.RecordingTracer;
+import com.huangzhiwei.slidemenu.BaseSlideLayout;
+import com.huangzhiwei.slidemenu.testing.GestureReplayer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 检查一次拖动打开menu的trace区间结构。
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SlideLayoutTraceTest {
+
+    private static final int DRAG_STEPS = 20;
+
+    private GestureReplayer replayer;
+
+    private SlideLayout slidingLayout;
+
+    private RecordingTracer tracer;
+
+    @Before
+    public void setUp() throws Exception {
+        MainActivity activity = Robolectric.setupActivity(MainActivity.class);
+        replayer = GestureReplayer.install(activity);
+        slidingLayout = (SlideLayout) activity.findViewById(R.id.slidingLayout);
+        tracer = new RecordingTracer();
+        slidingLayout.setTracer(tracer);
+    }
+
+    @Test
+    public void openMenuSpans() throws Exception {
+        replayer.drag(slidingLayout, 10, replayer.getWidth() - 10, DRAG_STEPS, false);
+        assertTrue(slidingLayout.isMenuVisible());
+        assertTrue(tracer.isBalanced());
+
+        assertEquals(1, tracer.countSpans(BaseSlideLayout.SECTION_DRAG_START));
+        assertEquals(1, tracer.countSpans(BaseSlideLayout.SECTION_SETTLE_START));
+        // 每帧最多应用一次拖动
+        int dragFrames = tracer.countSpans(BaseSlideLayout.SECTION_DRAG_FRAME);
+        assertTrue(dragFrames > 0 && dragFrames <= DRAG_STEPS);
+        assertTrue(tracer.countSpans(BaseSlideLayout.SECTION_SETTLE_FRAME) > 0);
+        // 滑动只修改translationX，不会重新测量和布局
+        assertEquals(0, tracer.countSpans(BaseSlideLayout.SECTION_MEASURE));
+        assertEquals(0, tracer.countSpans(BaseSlideLayout.SECTION_LAYOUT));
+
+        for (int i = 0; i < tracer.getSpanCount(); i++) {
+            assertEquals(tracer.getName(i), 0, tracer.getDepth(i));
+            assertTrue(tracer.getName(i), tracer.getDurationNanos(i) >= 0);
+        }
+        // 拖动开始之后才有回弹
+        int firstSettle = -1;
+        int lastDrag = -1;
+        for (int i = 0; i < tracer.getSpanCount(); i++) {
+            if (BaseSlideLayout.SECTION_DRAG_FRAME.equals(tracer.getName(i))) {
+                lastDrag = i;
+            } else if (firstSettle < 0 && BaseSlideLayout.SECTION_SETTLE_START.equals(tracer.getName(i))) {
+                firstSettle = i;
+            }
+        }
+        assertTrue(lastDrag < firstSettle);
+    }
+}